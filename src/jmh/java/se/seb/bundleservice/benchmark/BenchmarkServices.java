@@ -0,0 +1,26 @@
+package se.seb.bundleservice.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.CustomizationTable;
+import se.seb.bundleservice.service.DecisionJournal;
+import se.seb.bundleservice.service.DecisionMetrics;
+import se.seb.bundleservice.service.ShadowEvaluator;
+import se.seb.bundleservice.service.SuggestionTokens;
+import se.seb.bundleservice.service.ViolationEventLog;
+
+/**
+ * Builds services the way the application context does, with their background threads running.
+ */
+final class BenchmarkServices {
+
+    private BenchmarkServices() {
+    }
+
+    static BundleService bundleService() {
+        ViolationEventLog violationEventLog = new ViolationEventLog(8192, 10, 5);
+        violationEventLog.start();
+        return new BundleService(CustomizationTable.FillMode.EAGER, Long.MAX_VALUE, new DecisionMetrics(new SimpleMeterRegistry()), violationEventLog,
+                DecisionJournal.disabled(), ShadowEvaluator.disabled(), SuggestionTokens.disabled());
+    }
+}
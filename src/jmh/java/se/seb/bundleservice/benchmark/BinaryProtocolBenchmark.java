@@ -0,0 +1,70 @@
+package se.seb.bundleservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import se.seb.bundleservice.binary.BinaryClient;
+import se.seb.bundleservice.binary.BinaryServer;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.BundleResponse;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static se.seb.bundleservice.model.Bundle.STUDENT;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.DEBIT_CARD;
+
+/**
+ * Round trips through {@link BinaryClient} and {@link BinaryServer} over loopback, for comparison with the
+ * JSON costs of {@link JsonRoundTripBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryProtocolBenchmark {
+
+    private static final QuestionRequest QUESTION = new QuestionRequest(Age.ADULT, Student.YES, 0);
+    private static final CustomizeBundleRequest CUSTOMIZE = new CustomizeBundleRequest(STUDENT, QUESTION, List.of(DEBIT_CARD), List.of(CURRENT_ACCOUNT));
+
+    private BinaryServer server;
+    private BinaryClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new BinaryServer(BenchmarkServices.bundleService(), 0);
+        client = new BinaryClient("localhost", server.port());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        client.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public BundleResponse suggest() throws IOException {
+        return client.suggest(QUESTION);
+    }
+
+    @Benchmark
+    public CustomizedBundleResponse customize() throws IOException {
+        return client.customize(CUSTOMIZE);
+    }
+}
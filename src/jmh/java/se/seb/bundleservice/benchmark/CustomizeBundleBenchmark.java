@@ -0,0 +1,76 @@
+package se.seb.bundleservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.BundleService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static se.seb.bundleservice.model.Bundle.CLASSIC_PLUS;
+import static se.seb.bundleservice.model.Bundle.GOLD;
+import static se.seb.bundleservice.model.Bundle.JUNIOR_SAVER;
+import static se.seb.bundleservice.model.Bundle.STUDENT;
+import static se.seb.bundleservice.model.Product.CREDIT_CARD;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.DEBIT_CARD;
+import static se.seb.bundleservice.model.Product.GOLD_CREDIT_CARD;
+import static se.seb.bundleservice.model.Product.STUDENT_ACCOUNT;
+
+/**
+ * {@link BundleService#customizeBundle} for a successful customization and each kind of rejection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomizeBundleBenchmark {
+
+    public enum Scenario {
+        VALID(new CustomizeBundleRequest(GOLD, new QuestionRequest(Age.ADULT, Student.NO, 50000), List.of(GOLD_CREDIT_CARD), List.of(CREDIT_CARD))),
+        ACCOUNT_ISSUE(new CustomizeBundleRequest(CLASSIC_PLUS, new QuestionRequest(Age.ADULT, Student.NO, 18000), List.of(CURRENT_ACCOUNT, CREDIT_CARD), null)),
+        MULTI_VIOLATION(new CustomizeBundleRequest(STUDENT, new QuestionRequest(Age.ADULT, Student.YES, 0), List.of(DEBIT_CARD), List.of(CURRENT_ACCOUNT))),
+        JUNIOR_ISSUE(new CustomizeBundleRequest(JUNIOR_SAVER, new QuestionRequest(Age.UNDER_AGE, Student.NO, 0), null, List.of(DEBIT_CARD))),
+        REORDERED_ADDS(new CustomizeBundleRequest(STUDENT, new QuestionRequest(Age.ADULT, Student.YES, 0), List.of(STUDENT_ACCOUNT), List.of(GOLD_CREDIT_CARD, CURRENT_ACCOUNT)));
+
+        private final CustomizeBundleRequest request;
+
+        Scenario(CustomizeBundleRequest request) {
+            this.request = request;
+        }
+    }
+
+    @Param
+    public Scenario scenario;
+
+    private BundleService bundleService;
+    private CustomizeBundleRequest request;
+
+    @Setup
+    public void setUp() {
+        bundleService = BenchmarkServices.bundleService();
+        request = scenario.request;
+    }
+
+    @Benchmark
+    public ResponseEntity<CustomizedBundleResponse> customizeBundle() {
+        return bundleService.customizeBundle(request);
+    }
+}
@@ -0,0 +1,79 @@
+package se.seb.bundleservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizeStep;
+import se.seb.bundleservice.model.CustomizeStepsRequest;
+import se.seb.bundleservice.model.CustomizedStepsResponse;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.DecodedCustomizeSteps;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static se.seb.bundleservice.model.Bundle.CLASSIC;
+import static se.seb.bundleservice.model.Product.CREDIT_CARD;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT_PLUS;
+import static se.seb.bundleservice.model.Product.GOLD_CREDIT_CARD;
+
+/**
+ * Four customization steps through {@link BundleService#customizeSteps}, against the four /customize
+ * requests a client would otherwise send, each repeating the changes made so far.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomizeStepsBenchmark {
+
+    private static final QuestionRequest QUESTION = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+
+    private BundleService bundleService;
+    private DecodedCustomizeSteps steps;
+    private List<CustomizeBundleRequest> eachStep;
+
+    @Setup
+    public void setUp() {
+        bundleService = BenchmarkServices.bundleService();
+        steps = DecodedCustomizeSteps.of(new CustomizeStepsRequest(CLASSIC, QUESTION, List.of(
+                new CustomizeStep(null, List.of(CREDIT_CARD)),
+                new CustomizeStep(List.of(CURRENT_ACCOUNT), List.of(CURRENT_ACCOUNT_PLUS)),
+                new CustomizeStep(null, List.of(GOLD_CREDIT_CARD)),
+                new CustomizeStep(List.of(CREDIT_CARD), null))));
+        eachStep = List.of(
+                new CustomizeBundleRequest(CLASSIC, QUESTION, null, List.of(CREDIT_CARD)),
+                new CustomizeBundleRequest(CLASSIC, QUESTION, List.of(CURRENT_ACCOUNT), List.of(CREDIT_CARD, CURRENT_ACCOUNT_PLUS)),
+                new CustomizeBundleRequest(CLASSIC, QUESTION, List.of(CURRENT_ACCOUNT), List.of(CREDIT_CARD, CURRENT_ACCOUNT_PLUS, GOLD_CREDIT_CARD)),
+                new CustomizeBundleRequest(CLASSIC, QUESTION, List.of(CURRENT_ACCOUNT), List.of(CURRENT_ACCOUNT_PLUS, GOLD_CREDIT_CARD)));
+    }
+
+    @Benchmark
+    public ResponseEntity<CustomizedStepsResponse> customizeSteps() {
+        return bundleService.customizeSteps(steps);
+    }
+
+    @Benchmark
+    public int customizeEachStep() {
+        int statuses = 0;
+        for (CustomizeBundleRequest request : eachStep) {
+            statuses += bundleService.customizeBundle(request).getStatusCodeValue();
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,54 @@
+package se.seb.bundleservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.DecisionJournal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of journaling one decision from four request threads while the group commit runs in the background.
+ * Segments are written to a temporary directory, so run it on the disk the service will use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class DecisionJournalBenchmark {
+
+    private DecisionJournal journal;
+
+    @Setup
+    public void setUp() throws IOException {
+        journal = new DecisionJournal(Files.createTempDirectory("decision-journal").toString(), 64 << 20, 10);
+        journal.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        journal.stop();
+    }
+
+    @Benchmark
+    public void suggested() {
+        journal.suggested(Age.ADULT, Student.NO, 50000, Bundle.GOLD);
+    }
+}
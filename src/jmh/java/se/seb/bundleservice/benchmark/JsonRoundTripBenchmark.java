@@ -0,0 +1,115 @@
+package se.seb.bundleservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.seb.bundleservice.controller.InvalidRequestException;
+import se.seb.bundleservice.controller.StreamingRequestDecoder;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.BundleResponse;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.DecodedCustomizeRequest;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static se.seb.bundleservice.model.Bundle.STUDENT;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.DEBIT_CARD;
+
+/**
+ * Jackson decoding of the request models and encoding of the response models, as done per HTTP request.
+ * The decode benchmarks read the same bodies with {@link StreamingRequestDecoder} for comparison, and an
+ * invalid body to show what a rejection costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonRoundTripBenchmark {
+
+    private ObjectReader questionReader;
+    private ObjectReader customizeReader;
+    private ObjectWriter writer;
+    private StreamingRequestDecoder decoder;
+    private byte[] questionJson;
+    private byte[] customizeJson;
+    private byte[] invalidQuestionJson;
+    private BundleResponse bundleResponse;
+    private CustomizedBundleResponse customizedBundleResponse;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        questionReader = objectMapper.readerFor(QuestionRequest.class);
+        customizeReader = objectMapper.readerFor(CustomizeBundleRequest.class);
+        writer = objectMapper.writer();
+        decoder = new StreamingRequestDecoder(objectMapper.getFactory());
+
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.YES, 0);
+        CustomizeBundleRequest customize = new CustomizeBundleRequest(STUDENT, question, List.of(DEBIT_CARD), List.of(CURRENT_ACCOUNT));
+        questionJson = objectMapper.writeValueAsBytes(question);
+        customizeJson = objectMapper.writeValueAsBytes(customize);
+        invalidQuestionJson = objectMapper.writeValueAsBytes(new QuestionRequest(Age.ADULT, Student.YES, -1));
+
+        BundleService bundleService = BenchmarkServices.bundleService();
+        bundleResponse = bundleService.suggestBundle(question);
+        customizedBundleResponse = bundleService.customizeBundle(customize).getBody();
+    }
+
+    @Benchmark
+    public QuestionRequest readQuestionRequest() throws IOException {
+        return questionReader.readValue(questionJson);
+    }
+
+    @Benchmark
+    public CustomizeBundleRequest readCustomizeBundleRequest() throws IOException {
+        return customizeReader.readValue(customizeJson);
+    }
+
+    @Benchmark
+    public QuestionRequest decodeQuestionRequest() throws IOException {
+        return decoder.readQuestion(questionJson, 0, questionJson.length);
+    }
+
+    @Benchmark
+    public DecodedCustomizeRequest decodeCustomizeBundleRequest() throws IOException {
+        return decoder.readCustomize(customizeJson, 0, customizeJson.length);
+    }
+
+    @Benchmark
+    public String decodeInvalidQuestionRequest() throws IOException {
+        try {
+            return decoder.readQuestion(invalidQuestionJson, 0, invalidQuestionJson.length).toString();
+        } catch (InvalidRequestException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public byte[] writeBundleResponse() throws IOException {
+        return writer.writeValueAsBytes(bundleResponse);
+    }
+
+    @Benchmark
+    public byte[] writeCustomizedBundleResponse() throws IOException {
+        return writer.writeValueAsBytes(customizedBundleResponse);
+    }
+}
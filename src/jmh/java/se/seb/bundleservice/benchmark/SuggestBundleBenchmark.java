@@ -0,0 +1,55 @@
+package se.seb.bundleservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.BundleResponse;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.BundleService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BundleService#suggestBundle} across every Age/Student branch and every income band boundary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestBundleBenchmark {
+
+    @Param({"UNDER_AGE", "ADULT", "PENSION"})
+    public Age age;
+
+    @Param({"YES", "NO"})
+    public Student student;
+
+    @Param({"0", "12000", "40000", "40001"})
+    public int income;
+
+    private BundleService bundleService;
+    private QuestionRequest request;
+
+    @Setup
+    public void setUp() {
+        bundleService = BenchmarkServices.bundleService();
+        request = new QuestionRequest(age, student, income);
+    }
+
+    @Benchmark
+    public BundleResponse suggestBundle() {
+        return bundleService.suggestBundle(request);
+    }
+}
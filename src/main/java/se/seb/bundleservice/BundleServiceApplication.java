@@ -1,12 +1,29 @@
 package se.seb.bundleservice;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+
 @SpringBootApplication
 public class BundleServiceApplication {
 
+	private static final String BULK_INPUT_ARGUMENT = "--bundle.bulk.input=";
+	private static final String REPLAY_JOURNAL_ARGUMENT = "--bundle.replay.journal=";
+	private static final String CDS_TRAINING_ARGUMENT = "--bundle.cds.training-run=true";
+
 	public static void main(String[] args) {
-		SpringApplication.run(BundleServiceApplication.class, args);
+		SpringApplication application = new SpringApplication(BundleServiceApplication.class);
+		if (Arrays.stream(args).anyMatch(arg -> arg.startsWith(BULK_INPUT_ARGUMENT) || arg.startsWith(REPLAY_JOURNAL_ARGUMENT))) {
+			// Bulk and replay mode evaluate a file and exit, so there is no web server to start.
+			application.setWebApplicationType(WebApplicationType.NONE);
+			System.exit(SpringApplication.exit(application.run(args)));
+		}
+		if (Arrays.asList(args).contains(CDS_TRAINING_ARGUMENT)) {
+			// A training run starts, warms up and exits, so the JVM can dump the classes it loaded into a CDS archive.
+			System.exit(SpringApplication.exit(application.run(args)));
+		}
+		application.run(args);
 	}
 }
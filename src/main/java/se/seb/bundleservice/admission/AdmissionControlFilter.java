@@ -0,0 +1,155 @@
+package se.seb.bundleservice.admission;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import se.seb.bundleservice.model.Problem;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
+
+/**
+ * Admission control for the bundle endpoints. A request first takes a token from its client's
+ * {@link TokenBucket}, then a slot among the endpoint's concurrent evaluations. Requests that get neither
+ * are answered with 429 and Retry-After right away, so a flooding client is turned away before it can
+ * queue up threads and latency for everyone else.
+ * <p>
+ * Clients are identified by their authenticated principal, or else by the remote address. The
+ * {@code clientHeader} request header is only taken from {@code trustedProxies}, which forward it for the
+ * callers behind them; from anyone else it is ignored, so a flooding client cannot rotate ids to get new
+ * quotas. Both checks are lock-free, and the rejection bodies are serialized once up front.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    enum Endpoint {
+        SUGGEST, CUSTOMIZE, CUSTOMIZE_STEPS, BEST_BUNDLE, ELIGIBILITY, SUGGEST_BATCH, CUSTOMIZE_BATCH;
+
+        static Endpoint of(String path) {
+            return switch (path) {
+                case "/suggest" -> SUGGEST;
+                case "/customize" -> CUSTOMIZE;
+                case "/customize/steps" -> CUSTOMIZE_STEPS;
+                case "/best-bundle" -> BEST_BUNDLE;
+                case "/eligibility" -> ELIGIBILITY;
+                case "/suggest/batch" -> SUGGEST_BATCH;
+                case "/customize/batch" -> CUSTOMIZE_BATCH;
+                default -> null;
+            };
+        }
+
+        boolean isBatch() {
+            return this == SUGGEST_BATCH || this == CUSTOMIZE_BATCH;
+        }
+    }
+
+    enum Reason {
+        QUOTA, CONCURRENCY
+    }
+
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+    private static final Reason[] REASONS = Reason.values();
+    private static final long CONCURRENCY_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+    private final ClientQuotas quotas;
+    private final int[] maxConcurrent = new int[ENDPOINTS.length];
+    private final AtomicInteger[] inFlight = new AtomicInteger[ENDPOINTS.length];
+    private final Counter[] rejected = new Counter[ENDPOINTS.length * REASONS.length];
+    private final byte[][] rejections = new byte[REASONS.length][];
+
+    public AdmissionControlFilter(String clientHeader, Set<String> trustedProxies, double requestsPerSecond, int burst,
+                                  int maxClients, int maxConcurrent, int maxConcurrentBatches,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry) throws JsonProcessingException {
+        this.clientHeader = clientHeader;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+        this.quotas = new ClientQuotas(requestsPerSecond, burst, maxClients, System.nanoTime());
+        for (Endpoint endpoint : ENDPOINTS) {
+            String tag = endpoint.name().toLowerCase(Locale.ROOT);
+            this.maxConcurrent[endpoint.ordinal()] = endpoint.isBatch() ? maxConcurrentBatches : maxConcurrent;
+            AtomicInteger current = new AtomicInteger();
+            this.inFlight[endpoint.ordinal()] = current;
+            Gauge.builder("bundle.admission.in.flight", current, AtomicInteger::get)
+                    .description("Requests being evaluated")
+                    .tag("endpoint", tag)
+                    .register(meterRegistry);
+            for (Reason reason : REASONS) {
+                rejected[endpoint.ordinal() * REASONS.length + reason.ordinal()] = Counter.builder("bundle.admission.rejected")
+                        .description("Requests answered with 429")
+                        .tag("endpoint", tag)
+                        .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry);
+            }
+        }
+        Gauge.builder("bundle.admission.clients", quotas, ClientQuotas::clients)
+                .description("Clients with a tracked request quota")
+                .register(meterRegistry);
+        rejections[Reason.QUOTA.ordinal()] = objectMapper.writeValueAsBytes(Problem.tooManyRequests("Request quota exceeded"));
+        rejections[Reason.CONCURRENCY.ordinal()] = objectMapper.writeValueAsBytes(Problem.tooManyRequests("Too many concurrent requests"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        Endpoint endpoint = Endpoint.of(request.getRequestURI().substring(request.getContextPath().length()));
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long retryNanos = quotas.tryAcquire(client(request), System.nanoTime());
+        if (retryNanos > 0) {
+            reject(endpoint, Reason.QUOTA, retryNanos, response);
+            return;
+        }
+        AtomicInteger current = inFlight[endpoint.ordinal()];
+        if (current.incrementAndGet() > maxConcurrent[endpoint.ordinal()]) {
+            current.decrementAndGet();
+            reject(endpoint, Reason.CONCURRENCY, CONCURRENCY_RETRY_NANOS, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            current.decrementAndGet();
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return principal.getName();
+        }
+        String remoteAddress = request.getRemoteAddr();
+        if (trustedProxies.contains(remoteAddress)) {
+            String client = request.getHeader(clientHeader);
+            if (client != null) {
+                return client;
+            }
+        }
+        return remoteAddress;
+    }
+
+    private void reject(Endpoint endpoint, Reason reason, long retryNanos, HttpServletResponse response) throws IOException {
+        rejected[endpoint.ordinal() * REASONS.length + reason.ordinal()].increment();
+        byte[] body = rejections[reason.ordinal()];
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryNanos + 999_999_999))));
+        response.setContentType(APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,63 @@
+package se.seb.bundleservice.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One {@link TokenBucket} per client identifier. Identifiers come from the request, so the number of
+ * buckets is capped: when the cap is reached, full (idle) buckets are swept out at most once per second,
+ * and clients that still do not fit share a single overflow bucket until room frees up.
+ */
+final class ClientQuotas {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double tokensPerSecond;
+    private final int capacity;
+    private final int maxClients;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflow;
+    private final AtomicLong lastSweep;
+
+    ClientQuotas(double tokensPerSecond, int capacity, int maxClients, long now) {
+        this.tokensPerSecond = tokensPerSecond;
+        this.capacity = capacity;
+        this.maxClients = maxClients;
+        this.overflow = new TokenBucket(tokensPerSecond, capacity, now);
+        this.lastSweep = new AtomicLong(now - SWEEP_INTERVAL_NANOS);
+    }
+
+    /**
+     * @return 0 when {@code client} may proceed, otherwise the nanoseconds until it may retry
+     */
+    long tryAcquire(String client, long now) {
+        TokenBucket bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = register(client, now);
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    int clients() {
+        return buckets.size();
+    }
+
+    private TokenBucket register(String client, long now) {
+        if (buckets.size() >= maxClients) {
+            sweep(now);
+            if (buckets.size() >= maxClients) {
+                return overflow;
+            }
+        }
+        return buckets.computeIfAbsent(client, key -> new TokenBucket(tokensPerSecond, capacity, now));
+    }
+
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last >= SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package se.seb.bundleservice.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept as a single timestamp: the time at which it would be empty again if no more tokens
+ * were taken (the generic cell rate algorithm). Taking a token is one CAS, and an idle bucket needs no
+ * refill work since its timestamp simply falls behind the clock.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong emptyAt;
+
+    TokenBucket(double tokensPerSecond, int capacity, long now) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000 / tokensPerSecond));
+        this.toleranceNanos = intervalNanos * capacity;
+        this.emptyAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token if one is available at {@code now}.
+     *
+     * @return 0 when a token was taken, otherwise the nanoseconds until one will be available
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = emptyAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (emptyAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Whether the bucket is full at {@code now}, so dropping it is the same as keeping it.
+     */
+    boolean isFull(long now) {
+        return emptyAt.get() <= now;
+    }
+}
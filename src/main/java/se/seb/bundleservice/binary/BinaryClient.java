@@ -0,0 +1,99 @@
+package se.seb.bundleservice.binary;
+
+import se.seb.bundleservice.model.BundleResponse;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.QuestionRequest;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Blocking client for {@link BinaryServer}, returning the same response models as the HTTP API. One
+ * connection carries one request at a time; calls from several threads are serialized, so give each busy
+ * caller thread its own client.
+ */
+public class BinaryClient implements Closeable {
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(BinaryProtocol.CUSTOMIZE_BYTES);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(BinaryProtocol.INVALID_HEADER_BYTES + BinaryProtocol.MAX_DETAIL_BYTES);
+    private int nextId;
+
+    public BinaryClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the service rejects the request as invalid
+     */
+    public synchronized BundleResponse suggest(QuestionRequest request) throws IOException {
+        int id = nextId++;
+        out.clear();
+        BinaryProtocol.writeSuggest(id, request, out);
+        send();
+        receive(id, BinaryProtocol.SUGGESTED, BinaryProtocol.SUGGESTED_BYTES);
+        return BinaryProtocol.readSuggested(in);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the service rejects the request as invalid
+     */
+    public synchronized CustomizedBundleResponse customize(CustomizeBundleRequest request) throws IOException {
+        int id = nextId++;
+        out.clear();
+        BinaryProtocol.writeCustomize(id, request, out);
+        send();
+        receive(id, BinaryProtocol.CUSTOMIZED, BinaryProtocol.CUSTOMIZED_BYTES);
+        return BinaryProtocol.readCustomized(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void send() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+
+    /**
+     * Reads the response to request {@code id} into {@code in}, leaving it positioned after the type and id.
+     */
+    private void receive(int id, byte type, int size) throws IOException {
+        in.clear();
+        read(Math.min(BinaryProtocol.INVALID_HEADER_BYTES, size));
+        byte received = in.get(0);
+        if (received == BinaryProtocol.INVALID) {
+            read(BinaryProtocol.INVALID_HEADER_BYTES);
+            read(BinaryProtocol.INVALID_HEADER_BYTES + in.getShort(5));
+            byte[] detail = new byte[in.getShort(5)];
+            in.get(BinaryProtocol.INVALID_HEADER_BYTES, detail);
+            throw new IllegalArgumentException(new String(detail, StandardCharsets.UTF_8));
+        }
+        if (received != type || in.getInt(1) != id) {
+            throw new IOException("Unexpected response frame " + (received & 0xFF) + " for request " + id);
+        }
+        read(size);
+        in.position(5);
+    }
+
+    private void read(int bytes) throws IOException {
+        in.limit(bytes);
+        while (in.hasRemaining()) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("Connection closed by the bundle service");
+            }
+        }
+    }
+}
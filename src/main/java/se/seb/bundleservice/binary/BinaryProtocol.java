@@ -0,0 +1,216 @@
+package se.seb.bundleservice.binary;
+
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.BundleResponse;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.Product;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Status;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.model.Violations;
+import se.seb.bundleservice.service.DecodedCustomizeRequest;
+import se.seb.bundleservice.service.ProductMask;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-size big-endian frames for the bundle API, exchanged over a plain TCP connection. Every frame starts
+ * with a type byte and the caller's request id, which the response echoes:
+ * <pre>
+ * SUGGEST     0x01  id:int  age:byte  student:byte  income:int                                   11 bytes
+ * CUSTOMIZE   0x02  id:int  bundle:byte  age:byte  student:byte  income:int  remove:byte  add:int 17 bytes
+ * SUGGESTED   0x81  id:int  bundle:byte                                                            6 bytes
+ * CUSTOMIZED  0x82  id:int  bundle:byte  products:int  illegalProducts:int  violations:int        18 bytes
+ * INVALID     0xFF  id:int  length:short  detail:UTF-8
+ * </pre>
+ * Bundles are sent as {@link Bundle#getId() ids}, ages, student status and violations as ordinals, and
+ * product sets as {@link ProductMask}s. Lists whose order shows in the response (added products, the
+ * resulting products, illegal products and violations) are packed one {@code ordinal + 1} per nibble, first
+ * element in the lowest nibble. A customization's status follows from its violations, so it is not sent.
+ */
+public final class BinaryProtocol {
+
+    public static final byte SUGGEST = 0x01;
+    public static final byte CUSTOMIZE = 0x02;
+    public static final byte SUGGESTED = (byte) 0x81;
+    public static final byte CUSTOMIZED = (byte) 0x82;
+    public static final byte INVALID = (byte) 0xFF;
+
+    static final int SUGGEST_BYTES = 11;
+    static final int CUSTOMIZE_BYTES = 17;
+    static final int SUGGESTED_BYTES = 6;
+    static final int CUSTOMIZED_BYTES = 18;
+    static final int INVALID_HEADER_BYTES = 7;
+    static final int MAX_DETAIL_BYTES = 256;
+
+    private static final Age[] AGES = Age.values();
+    private static final Student[] STUDENTS = Student.values();
+    private static final Product[] PRODUCTS = Product.values();
+    private static final Violations[] VIOLATIONS = Violations.values();
+    private static final Bundle[] BUNDLES_BY_ID = new Bundle[Bundle.values().length + 1];
+    private static final Map<String, Bundle> BUNDLES_BY_NAME = new HashMap<>();
+
+    static {
+        for (Bundle bundle : Bundle.values()) {
+            BUNDLES_BY_ID[bundle.getId()] = bundle;
+            BUNDLES_BY_NAME.put(bundle.getName(), bundle);
+        }
+    }
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Size of a request frame of {@code type}, or -1 for an unknown type.
+     */
+    static int requestBytes(byte type) {
+        return switch (type) {
+            case SUGGEST -> SUGGEST_BYTES;
+            case CUSTOMIZE -> CUSTOMIZE_BYTES;
+            default -> -1;
+        };
+    }
+
+    public static void writeSuggest(int id, QuestionRequest request, ByteBuffer out) {
+        out.put(SUGGEST).putInt(id);
+        writeQuestion(request.getAge(), request.getStudent(), request.getIncome(), out);
+    }
+
+    public static void writeCustomize(int id, CustomizeBundleRequest request, ByteBuffer out) {
+        QuestionRequest question = request.getQuestionRequest();
+        out.put(CUSTOMIZE).putInt(id).put((byte) request.getBundle().getId());
+        writeQuestion(question.getAge(), question.getStudent(), question.getIncome(), out);
+        out.put((byte) ProductMask.of(request.getRemoveProducts() == null ? List.of() : request.getRemoveProducts()));
+        out.putInt(request.getAddProducts() == null ? 0 : pack(request.getAddProducts()));
+    }
+
+    /**
+     * Reads the body of a SUGGEST frame, after its type and id.
+     *
+     * @throws IllegalArgumentException when a value is out of range, with the detail to send back
+     */
+    static QuestionRequest readSuggest(ByteBuffer in) {
+        Age age = ordinal(AGES, in.get(), "age");
+        Student student = ordinal(STUDENTS, in.get(), "student");
+        return new QuestionRequest(age, student, income(in.getInt()));
+    }
+
+    /**
+     * Reads the body of a CUSTOMIZE frame, after its type and id.
+     *
+     * @throws IllegalArgumentException when a value is out of range, with the detail to send back
+     */
+    static DecodedCustomizeRequest readCustomize(ByteBuffer in) {
+        int bundleId = in.get();
+        if (bundleId <= 0 || bundleId >= BUNDLES_BY_ID.length) {
+            throw new IllegalArgumentException("bundle: must be one of " + Arrays.toString(Bundle.values()));
+        }
+        Age age = ordinal(AGES, in.get(), "age");
+        Student student = ordinal(STUDENTS, in.get(), "student");
+        int income = income(in.getInt());
+        long removeProducts = in.get() & ProductMask.ALL;
+        int addOrder = in.getInt();
+        List<Product> addProducts = unpack(PRODUCTS, addOrder, "addProducts");
+        long addMask = ProductMask.of(addProducts);
+        return new DecodedCustomizeRequest(BUNDLES_BY_ID[bundleId], age, student, income, removeProducts, addMask,
+                ProductMask.isAscending(addProducts) ? null : ProductMask.toList(addMask, addProducts));
+    }
+
+    static void writeSuggested(int id, BundleResponse response, ByteBuffer out) {
+        out.put(SUGGESTED).putInt(id).put((byte) BUNDLES_BY_NAME.get(response.getBundleName()).getId());
+    }
+
+    static void writeCustomized(int id, Bundle bundle, CustomizedBundleResponse response, ByteBuffer out) {
+        out.put(CUSTOMIZED).putInt(id).put((byte) bundle.getId())
+                .putInt(pack(response.getProducts()))
+                .putInt(pack(response.getIllegalProducts()))
+                .putInt(pack(response.getViolations()));
+    }
+
+    static void writeInvalid(int id, String detail, ByteBuffer out) {
+        byte[] bytes = detail.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_DETAIL_BYTES);
+        out.put(INVALID).putInt(id).putShort((short) length).put(bytes, 0, length);
+    }
+
+    /**
+     * Reads the body of a SUGGESTED frame, after its type and id.
+     */
+    public static BundleResponse readSuggested(ByteBuffer in) {
+        Bundle bundle = BUNDLES_BY_ID[in.get()];
+        return BundleResponse.builder()
+                .BundleName(bundle.getName())
+                .products(bundle.getProducts())
+                .build();
+    }
+
+    /**
+     * Reads the body of a CUSTOMIZED frame, after its type and id.
+     */
+    public static CustomizedBundleResponse readCustomized(ByteBuffer in) {
+        Bundle bundle = BUNDLES_BY_ID[in.get()];
+        List<Product> products = unpack(PRODUCTS, in.getInt(), "products");
+        List<Product> illegalProducts = unpack(PRODUCTS, in.getInt(), "illegalProducts");
+        List<Violations> violations = unpack(VIOLATIONS, in.getInt(), "violations");
+        return CustomizedBundleResponse.builder()
+                .bundleName(bundle.getName())
+                .products(products)
+                .illegalProducts(illegalProducts)
+                .violations(violations)
+                .status(violations.isEmpty() ? Status.SUCCESSFUL : Status.ERROR)
+                .build();
+    }
+
+    private static void writeQuestion(Age age, Student student, int income, ByteBuffer out) {
+        out.put((byte) age.ordinal()).put((byte) student.ordinal()).putInt(income);
+    }
+
+    private static <E extends Enum<E>> E ordinal(E[] values, int ordinal, String path) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException(path + ": must be one of " + Arrays.toString(values));
+        }
+        return values[ordinal];
+    }
+
+    private static int income(int income) {
+        if (income < 0) {
+            throw new IllegalArgumentException("income: must be greater than or equal to 0");
+        }
+        return income;
+    }
+
+    /**
+     * Packs distinct constants in order, one {@code ordinal + 1} per nibble.
+     */
+    private static int pack(List<? extends Enum<?>> values) {
+        int packed = 0;
+        int seen = 0;
+        int shift = 0;
+        for (int i = 0, size = values.size(); i < size; i++) {
+            int ordinal = values.get(i).ordinal();
+            if ((seen & 1 << ordinal) == 0) {
+                seen |= 1 << ordinal;
+                packed |= ordinal + 1 << shift;
+                shift += 4;
+            }
+        }
+        return packed;
+    }
+
+    private static <E extends Enum<E>> List<E> unpack(E[] values, int packed, String path) {
+        @SuppressWarnings("unchecked")
+        E[] unpacked = (E[]) new Enum<?>[Integer.SIZE / 4];
+        int size = 0;
+        for (int remaining = packed; remaining != 0; remaining >>>= 4) {
+            unpacked[size++] = ordinal(values, (remaining & 0xF) - 1, path);
+        }
+        return List.of(Arrays.copyOf(unpacked, size));
+    }
+}
@@ -0,0 +1,194 @@
+package se.seb.bundleservice.binary;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.DecodedCustomizeRequest;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves {@link BinaryProtocol} frames on {@code bundle.binary.port}, next to the HTTP API. Only started
+ * when the port is configured.
+ * <p>
+ * A single selector thread accepts connections, reads frames and answers them in place: a decision is a
+ * table lookup, so handing it to another thread would cost more than making it. Callers may pipeline any
+ * number of requests on a connection and are answered in order. Each connection has a fixed input and
+ * output buffer; while the caller does not read its responses, the server stops reading its requests
+ * instead of buffering more. A frame with an unknown type cannot be skipped, so it is answered with
+ * INVALID and the connection is closed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bundle.binary", name = "port")
+public class BinaryServer {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int MAX_RESPONSE_BYTES = BinaryProtocol.INVALID_HEADER_BYTES + BinaryProtocol.MAX_DETAIL_BYTES;
+
+    private final BundleService bundleService;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread eventLoop;
+    private volatile boolean running = true;
+
+    public BinaryServer(BundleService bundleService, @Value("${bundle.binary.port}") int port) throws IOException {
+        this.bundleService = bundleService;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.eventLoop = new Thread(this::run, "binary-server");
+        eventLoop.setDaemon(true);
+        eventLoop.start();
+        log.info("Binary bundle API listening on port {}", port());
+    }
+
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        selector.wakeup();
+        eventLoop.join(TimeUnit.SECONDS.toMillis(1));
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select(key -> {
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            ((Connection) key.attachment()).ready(key);
+                        }
+                    } catch (IOException e) {
+                        log.debug("Closing binary connection", e);
+                        close(key);
+                    } catch (RuntimeException e) {
+                        log.warn("Closing binary connection after a failure", e);
+                        close(key);
+                    }
+                });
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                log.error("Binary bundle API stopped", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+        }
+    }
+
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            log.debug("Unable to close binary connection", e);
+        }
+    }
+
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private boolean closing;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void ready(SelectionKey key) throws IOException {
+            if (key.isReadable() && channel.read(in) < 0) {
+                close(key);
+                return;
+            }
+            do {
+                answer();
+                out.flip();
+                channel.write(out);
+                out.compact();
+            } while (out.position() == 0 && hasFrame());
+            if (out.position() > 0) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else if (closing) {
+                close(key);
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        /**
+         * Whether the input buffer still holds a frame that {@link #answer()} left for lack of output room.
+         */
+        private boolean hasFrame() {
+            if (closing || in.position() < 5) {
+                return false;
+            }
+            int size = BinaryProtocol.requestBytes(in.get(0));
+            return size < 0 || in.position() >= size;
+        }
+
+        /**
+         * Answers every complete frame in the input buffer that the output buffer has room for.
+         */
+        private void answer() {
+            in.flip();
+            while (!closing && in.remaining() >= 5 && out.remaining() >= MAX_RESPONSE_BYTES) {
+                byte type = in.get(in.position());
+                int size = BinaryProtocol.requestBytes(type);
+                if (size < 0) {
+                    BinaryProtocol.writeInvalid(in.getInt(in.position() + 1), "Unknown frame type " + (type & 0xFF), out);
+                    closing = true;
+                } else if (in.remaining() < size) {
+                    break;
+                } else {
+                    int next = in.position() + size;
+                    in.get();
+                    int id = in.getInt();
+                    try {
+                        if (type == BinaryProtocol.SUGGEST) {
+                            BinaryProtocol.writeSuggested(id, bundleService.suggestBundle(BinaryProtocol.readSuggest(in)), out);
+                        } else {
+                            DecodedCustomizeRequest request = BinaryProtocol.readCustomize(in);
+                            BinaryProtocol.writeCustomized(id, request.bundle(), bundleService.customizeBundle(request).getBody(), out);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        BinaryProtocol.writeInvalid(id, e.getMessage(), out);
+                    }
+                    in.position(next);
+                }
+            }
+            in.compact();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package se.seb.bundleservice.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import se.seb.bundleservice.controller.ResponseJsonCache;
+import se.seb.bundleservice.controller.StreamingRequestDecoder;
+import se.seb.bundleservice.service.BatchItemEvaluator;
+import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.CustomizationTable;
+
+import javax.validation.Validator;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Runs a {@link BulkEvaluator} over {@code bundle.bulk.input} when the application is started in bulk mode,
+ * writing NDJSON results to {@code bundle.bulk.output}.
+ * <p>
+ * Records are evaluated by a {@link BundleService#detached detached} service with the rules in use, so a
+ * run over the whole customer base stays out of the decision metrics, logs, audit trail and shadow
+ * evaluation.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bundle.bulk", name = "input")
+public class BulkEvaluationRunner implements ApplicationRunner {
+
+    private final BundleService bundleService;
+    private final Validator validator;
+    private final StreamingRequestDecoder decoder;
+    private final ResponseJsonCache responseJsonCache;
+    private final CustomizationTable.FillMode fillMode;
+    private final long fillBudgetMillis;
+    private final Path input;
+    private final Path output;
+    private final BulkType type;
+    private final int parallelism;
+
+    public BulkEvaluationRunner(BundleService bundleService, Validator validator, StreamingRequestDecoder decoder, ResponseJsonCache responseJsonCache,
+                                @Value("${bundle.customization-table.fill-mode:EAGER}") CustomizationTable.FillMode fillMode,
+                                @Value("${bundle.customization-table.fill-budget-millis:500}") long fillBudgetMillis,
+                                @Value("${bundle.bulk.input}") String input,
+                                @Value("${bundle.bulk.output:${bundle.bulk.input}.results}") String output,
+                                @Value("${bundle.bulk.type:SUGGEST}") BulkType type,
+                                @Value("${bundle.bulk.parallelism:0}") int parallelism) {
+        this.bundleService = bundleService;
+        this.validator = validator;
+        this.decoder = decoder;
+        this.responseJsonCache = responseJsonCache;
+        this.fillMode = fillMode;
+        this.fillBudgetMillis = fillBudgetMillis;
+        this.input = Path.of(input);
+        this.output = Path.of(output);
+        this.type = type;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        BundleService bulkService = BundleService.detached(fillMode, fillBudgetMillis, bundleService.rules());
+        BulkEvaluator bulkEvaluator = new BulkEvaluator(new BatchItemEvaluator(bulkService, validator), decoder, responseJsonCache, parallelism);
+        BulkReport report = bulkEvaluator.evaluate(input, output, type);
+        log.info("Bulk evaluation of {} written to {}: {}", input, output, report);
+    }
+}
@@ -0,0 +1,230 @@
+package se.seb.bundleservice.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.extern.slf4j.Slf4j;
+import se.seb.bundleservice.controller.InvalidRequestException;
+import se.seb.bundleservice.controller.ResponseJsonCache;
+import se.seb.bundleservice.controller.StreamingRequestDecoder;
+import se.seb.bundleservice.model.BatchItemResult;
+import se.seb.bundleservice.service.BatchItemEvaluator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Evaluates an NDJSON file of requests without going through HTTP.
+ * <p>
+ * The input is memory-mapped and split at line boundaries into slices that are evaluated on a fork-join
+ * pool. Each slice writes its results to a part file through a buffered channel, and the parts are
+ * concatenated into the output so that line N of the output is the result of record N of the input.
+ * Blank lines are skipped and do not count as records.
+ */
+@Slf4j
+public class BulkEvaluator {
+
+    private static final long MAX_SLICE_BYTES = 256L << 20;
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 16;
+
+    private final BatchItemEvaluator batchItemEvaluator;
+    private final StreamingRequestDecoder decoder;
+    private final ResponseJsonCache responseJsonCache;
+    private final int parallelism;
+
+    public BulkEvaluator(BatchItemEvaluator batchItemEvaluator, StreamingRequestDecoder decoder, ResponseJsonCache responseJsonCache, int parallelism) {
+        this.batchItemEvaluator = batchItemEvaluator;
+        this.decoder = decoder;
+        this.responseJsonCache = responseJsonCache;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public BulkReport evaluate(Path input, Path output, BulkType type) throws IOException {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<Path> parts = new ArrayList<>();
+        try (FileChannel in = FileChannel.open(input, READ)) {
+            long size = in.size();
+            List<MappedByteBuffer> slices = slice(in, size);
+            log.info("Evaluating {} ({} bytes) as {} in {} slices on {} threads", input, size, type, slices.size(), parallelism);
+
+            List<Long> counts = invokeAll(pool, slices.stream().<Callable<Long>>map(slice -> () -> countRecords(slice)).toList());
+            List<Callable<Path>> tasks = new ArrayList<>(slices.size());
+            long firstIndex = 0;
+            for (int i = 0; i < slices.size(); i++) {
+                MappedByteBuffer slice = slices.get(i);
+                long sliceFirstIndex = firstIndex;
+                Path part = output.resolveSibling(output.getFileName() + ".part-" + i);
+                parts.add(part);
+                tasks.add(() -> evaluateSlice(slice, sliceFirstIndex, part, type));
+                firstIndex += counts.get(i);
+            }
+            concatenate(invokeAll(pool, tasks), output);
+            return new BulkReport(firstIndex, size, Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            pool.shutdown();
+            deleteParts(parts);
+        }
+    }
+
+    private List<MappedByteBuffer> slice(FileChannel in, long size) throws IOException {
+        long target = Math.max(parallelism * 4L, (size + MAX_SLICE_BYTES - 1) / MAX_SLICE_BYTES);
+        List<MappedByteBuffer> slices = new ArrayList<>();
+        long sliceStart = 0;
+        for (long i = 1; i <= target && sliceStart < size; i++) {
+            long sliceEnd = i == target ? size : nextLineStart(in, Math.max(sliceStart, size * i / target), size);
+            if (sliceEnd > sliceStart) {
+                if (sliceEnd - sliceStart > Integer.MAX_VALUE) {
+                    throw new IOException("Line starting near offset " + sliceStart + " is too long to map");
+                }
+                slices.add(in.map(FileChannel.MapMode.READ_ONLY, sliceStart, sliceEnd - sliceStart));
+                sliceStart = sliceEnd;
+            }
+        }
+        return slices;
+    }
+
+    private static long nextLineStart(FileChannel in, long position, long size) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = in.read(buffer, offset);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static long countRecords(ByteBuffer slice) {
+        long records = 0;
+        int lineStart = 0;
+        int limit = slice.limit();
+        for (int i = 0; i <= limit; i++) {
+            if (i == limit || slice.get(i) == '\n') {
+                if (!isBlank(slice, lineStart, i)) {
+                    records++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        return records;
+    }
+
+    private Path evaluateSlice(ByteBuffer slice, long firstIndex, Path part, BulkType type) throws IOException {
+        byte[] line = new byte[1024];
+        long index = firstIndex;
+        try (FileChannel channel = FileChannel.open(part, CREATE, WRITE, TRUNCATE_EXISTING);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), OUTPUT_BUFFER_BYTES)) {
+            int lineStart = 0;
+            int limit = slice.limit();
+            for (int i = 0; i <= limit; i++) {
+                if (i == limit || slice.get(i) == '\n') {
+                    int length = i - lineStart;
+                    if (!isBlank(slice, lineStart, i)) {
+                        if (length > line.length) {
+                            line = new byte[Math.max(length, line.length * 2)];
+                        }
+                        slice.get(lineStart, line, 0, length);
+                        responseJsonCache.writeNdjsonLine(evaluateRecord(line, length, index++, type), out);
+                    }
+                    lineStart = i + 1;
+                }
+            }
+        }
+        return part;
+    }
+
+    private BatchItemResult evaluateRecord(byte[] line, int length, long index, BulkType type) throws IOException {
+        try {
+            return switch (type) {
+                case SUGGEST -> batchItemEvaluator.suggestDecoded(index, decoder.readQuestion(line, 0, length));
+                case CUSTOMIZE -> batchItemEvaluator.customizeDecoded(index, decoder.readCustomize(line, 0, length));
+            };
+        } catch (InvalidRequestException e) {
+            return BatchItemEvaluator.invalid(index, e.getMessage());
+        } catch (JsonProcessingException e) {
+            return BatchItemEvaluator.invalid(index, e.getOriginalMessage());
+        }
+    }
+
+    static void concatenate(List<Path> parts, Path output) throws IOException {
+        try (FileChannel out = FileChannel.open(output, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            for (Path part : parts) {
+                try (FileChannel in = FileChannel.open(part, READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+                Files.delete(part);
+            }
+        }
+    }
+
+    /**
+     * Removes the part files that a failed evaluation left behind; after a successful one they are already gone.
+     */
+    static void deleteParts(List<Path> parts) {
+        for (Path part : parts) {
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException e) {
+                log.warn("Unable to delete {}", part, e);
+            }
+        }
+    }
+
+    private static boolean isBlank(ByteBuffer slice, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = slice.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static <T> List<T> invokeAll(ForkJoinPool pool, List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during bulk evaluation", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException("Bulk evaluation failed", e.getCause());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,24 @@
+package se.seb.bundleservice.bulk;
+
+import java.time.Duration;
+
+public record BulkReport(long records, long bytes, Duration elapsed) {
+
+    public double recordsPerSecond() {
+        return records / seconds();
+    }
+
+    public double megabytesPerSecond() {
+        return bytes / (1024.0 * 1024.0) / seconds();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d records (%.1f MiB) in %d ms: %.0f records/s, %.1f MiB/s",
+                records, bytes / (1024.0 * 1024.0), elapsed.toMillis(), recordsPerSecond(), megabytesPerSecond());
+    }
+
+    private double seconds() {
+        return Math.max(elapsed.toNanos(), 1) / 1e9;
+    }
+}
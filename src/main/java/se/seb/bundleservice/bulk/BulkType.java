@@ -0,0 +1,5 @@
+package se.seb.bundleservice.bulk;
+
+public enum BulkType {
+    SUGGEST, CUSTOMIZE
+}
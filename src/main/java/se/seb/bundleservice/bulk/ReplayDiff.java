@@ -0,0 +1,50 @@
+package se.seb.bundleservice.bulk;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.BundleResponse;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.Product;
+import se.seb.bundleservice.model.Status;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.model.Violations;
+import se.seb.bundleservice.service.JournalRecord;
+import se.seb.bundleservice.service.ProductMask;
+
+import java.util.List;
+
+/**
+ * A recorded decision whose outcome differs between the current and the candidate rules, located by its
+ * segment file and record number within that segment. Product lists are only set for customizations.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReplayDiff(String segment, long record, long timestampMillis, JournalRecord.Decision decision,
+                         Age age, Student student, int income, Bundle bundle,
+                         List<Product> removeProducts, List<Product> addProducts,
+                         Outcome current, Outcome candidate) {
+
+    static ReplayDiff of(String segment, long record, JournalRecord decision, Outcome current, Outcome candidate) {
+        boolean customized = decision.decision() == JournalRecord.Decision.CUSTOMIZE;
+        return new ReplayDiff(segment, record, decision.timestampMillis(), decision.decision(),
+                decision.age(), decision.student(), decision.income(), decision.bundle(),
+                customized ? ProductMask.toList(decision.removeProducts()) : null,
+                customized ? ProductMask.toList(decision.addProducts()) : null,
+                current, candidate);
+    }
+
+    /**
+     * What one rule set decided. Suggestions only have a bundle name.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Outcome(String bundleName, Status status, List<Violations> violations) {
+
+        static Outcome of(BundleResponse response) {
+            return new Outcome(response.getBundleName(), null, null);
+        }
+
+        static Outcome of(CustomizedBundleResponse response) {
+            return new Outcome(response.getBundleName(), response.getStatus(), response.getViolations());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package se.seb.bundleservice.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.BundleResponse;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Violations;
+import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.CustomizationTable;
+import se.seb.bundleservice.service.DecisionJournal;
+import se.seb.bundleservice.service.DecodedCustomizeRequest;
+import se.seb.bundleservice.service.JournalRecord;
+import se.seb.bundleservice.service.RuleSet;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Replays the decisions recorded in a {@link DecisionJournal} against the current and a candidate
+ * {@link RuleSet} and reports the requests whose outcome differs: the suggested bundle for suggestions,
+ * the status or the set of violations for customizations.
+ * <p>
+ * Segments are replayed in parallel on a fork-join pool, each streamed from its mapping, so memory stays
+ * bounded by the number of threads rather than the size of the journal. Every difference is written as one
+ * {@link ReplayDiff} line to a part file per segment, and the parts are concatenated into the output in
+ * journal order.
+ */
+@Slf4j
+public class ReplayEvaluator {
+
+    private static final Bundle[] BUNDLES = Bundle.values();
+    private static final Violations[] VIOLATIONS = Violations.values();
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 16;
+
+    private final BundleService current;
+    private final BundleService candidate;
+    private final ObjectMapper objectMapper;
+    private final int parallelism;
+
+    public ReplayEvaluator(RuleSet currentRules, RuleSet candidateRules, ObjectMapper objectMapper, int parallelism) {
+        this.current = BundleService.detached(CustomizationTable.FillMode.EAGER, Long.MAX_VALUE, currentRules);
+        this.candidate = BundleService.detached(CustomizationTable.FillMode.EAGER, Long.MAX_VALUE, candidateRules);
+        this.objectMapper = objectMapper;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    public ReplayReport replay(Path journal, Path output) throws IOException {
+        long start = System.nanoTime();
+        List<Path> segments = DecisionJournal.segments(journal);
+        log.info("Replaying {} segments of {} on {} threads", segments.size(), journal, parallelism);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<Path> parts = new ArrayList<>(segments.size());
+        try {
+            List<Callable<Tally>> tasks = new ArrayList<>(segments.size());
+            for (int i = 0; i < segments.size(); i++) {
+                Path segment = segments.get(i);
+                Path part = output.resolveSibling(output.getFileName() + ".part-" + i);
+                parts.add(part);
+                tasks.add(() -> replaySegment(segment, part));
+            }
+            Tally total = new Tally();
+            for (Tally tally : BulkEvaluator.invokeAll(pool, tasks)) {
+                total.add(tally);
+            }
+            BulkEvaluator.concatenate(parts, output);
+            return total.report(Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            pool.shutdown();
+            BulkEvaluator.deleteParts(parts);
+        }
+    }
+
+    private Tally replaySegment(Path segment, Path part) throws IOException {
+        Tally tally = new Tally();
+        String file = segment.getFileName().toString();
+        try (FileChannel channel = FileChannel.open(part, CREATE, WRITE, TRUNCATE_EXISTING);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), OUTPUT_BUFFER_BYTES)) {
+            DecisionJournal.readSegment(segment, record -> {
+                ReplayDiff diff = switch (record.decision()) {
+                    case SUGGEST -> replaySuggestion(file, tally.records, record, tally);
+                    case CUSTOMIZE -> replayCustomization(file, tally.records, record, tally);
+                };
+                if (diff != null) {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(diff));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                tally.records++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return tally;
+    }
+
+    private ReplayDiff replaySuggestion(String segment, long index, JournalRecord record, Tally tally) {
+        QuestionRequest question = new QuestionRequest(record.age(), record.student(), record.income());
+        BundleResponse before = current.suggestBundle(question);
+        BundleResponse after = candidate.suggestBundle(question);
+        if (before.getBundleName().equals(after.getBundleName())) {
+            return null;
+        }
+        tally.changed(record.bundle(), 0, 0);
+        return ReplayDiff.of(segment, index, record, ReplayDiff.Outcome.of(before), ReplayDiff.Outcome.of(after));
+    }
+
+    private ReplayDiff replayCustomization(String segment, long index, JournalRecord record, Tally tally) {
+        DecodedCustomizeRequest request = new DecodedCustomizeRequest(record.bundle(), record.age(), record.student(), record.income(),
+                record.removeProducts(), record.addProducts(), null);
+        CustomizedBundleResponse before = current.customizeBundle(request).getBody();
+        CustomizedBundleResponse after = candidate.customizeBundle(request).getBody();
+        int violationsBefore = violationMask(before.getViolations());
+        int violationsAfter = violationMask(after.getViolations());
+        if (before.getStatus() == after.getStatus() && violationsBefore == violationsAfter) {
+            return null;
+        }
+        tally.changed(record.bundle(), violationsAfter & ~violationsBefore, violationsBefore & ~violationsAfter);
+        return ReplayDiff.of(segment, index, record, ReplayDiff.Outcome.of(before), ReplayDiff.Outcome.of(after));
+    }
+
+    private static int violationMask(List<Violations> violations) {
+        int mask = 0;
+        for (int i = 0, size = violations.size(); i < size; i++) {
+            mask |= 1 << violations.get(i).ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Counts for one segment, merged into the report once every segment is done.
+     */
+    private static final class Tally {
+
+        private final long[] changedByBundle = new long[BUNDLES.length];
+        private final long[] violationsGained = new long[VIOLATIONS.length];
+        private final long[] violationsLost = new long[VIOLATIONS.length];
+        private long records;
+        private long changed;
+
+        void changed(Bundle bundle, int gained, int lost) {
+            changed++;
+            changedByBundle[bundle.ordinal()]++;
+            for (int remaining = gained; remaining != 0; remaining &= remaining - 1) {
+                violationsGained[Integer.numberOfTrailingZeros(remaining)]++;
+            }
+            for (int remaining = lost; remaining != 0; remaining &= remaining - 1) {
+                violationsLost[Integer.numberOfTrailingZeros(remaining)]++;
+            }
+        }
+
+        void add(Tally other) {
+            records += other.records;
+            changed += other.changed;
+            for (int i = 0; i < changedByBundle.length; i++) {
+                changedByBundle[i] += other.changedByBundle[i];
+            }
+            for (int i = 0; i < violationsGained.length; i++) {
+                violationsGained[i] += other.violationsGained[i];
+                violationsLost[i] += other.violationsLost[i];
+            }
+        }
+
+        ReplayReport report(Duration elapsed) {
+            return new ReplayReport(records, changed, counts(BUNDLES, changedByBundle), counts(VIOLATIONS, violationsGained),
+                    counts(VIOLATIONS, violationsLost), elapsed);
+        }
+
+        private static <E extends Enum<E>> Map<E, Long> counts(E[] keys, long[] counts) {
+            Map<E, Long> nonZero = new EnumMap<>(keys[0].getDeclaringClass());
+            for (E key : keys) {
+                if (counts[key.ordinal()] != 0) {
+                    nonZero.put(key, counts[key.ordinal()]);
+                }
+            }
+            return nonZero;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package se.seb.bundleservice.bulk;
+
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.Violations;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Outcome of a replay. Changed decisions are counted per recorded bundle, and violations per direction:
+ * gained under the candidate rules or lost by them. Zero counts are left out.
+ */
+public record ReplayReport(long records, long changed, Map<Bundle, Long> changedByBundle,
+                           Map<Violations, Long> violationsGained, Map<Violations, Long> violationsLost, Duration elapsed) {
+
+    public double recordsPerSecond() {
+        return records / (Math.max(elapsed.toNanos(), 1) / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder(String.format("%d of %d decisions changed in %d ms (%.0f records/s)",
+                changed, records, elapsed.toMillis(), recordsPerSecond()));
+        append(summary, "changed per bundle", changedByBundle, "");
+        append(summary, "violations gained", violationsGained, "+");
+        append(summary, "violations lost", violationsLost, "-");
+        return summary.toString();
+    }
+
+    private static void append(StringBuilder summary, String title, Map<?, Long> counts, String sign) {
+        if (!counts.isEmpty()) {
+            summary.append(String.format("%n%s:", title));
+            counts.forEach((key, count) -> summary.append(String.format("%n  %-32s %s%d", key, sign, count)));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package se.seb.bundleservice.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.RuleFileWatcher;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Replays the decision journal in {@code bundle.replay.journal} against the rules in use and the candidate
+ * rules in {@code bundle.replay.candidate-rules} when the application is started in replay mode, writing
+ * the differences to {@code bundle.replay.output} and logging a summary.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bundle.replay", name = "journal")
+public class ReplayRunner implements ApplicationRunner {
+
+    private final BundleService bundleService;
+    private final ObjectMapper objectMapper;
+    private final Path journal;
+    private final Path candidateRules;
+    private final Path output;
+    private final int parallelism;
+
+    public ReplayRunner(BundleService bundleService, ObjectMapper objectMapper,
+                        @Value("${bundle.replay.journal}") String journal,
+                        @Value("${bundle.replay.candidate-rules}") String candidateRules,
+                        @Value("${bundle.replay.output:${bundle.replay.journal}.diff}") String output,
+                        @Value("${bundle.replay.parallelism:0}") int parallelism) {
+        this.bundleService = bundleService;
+        this.objectMapper = objectMapper;
+        this.journal = Path.of(journal);
+        this.candidateRules = Path.of(candidateRules);
+        this.output = Path.of(output);
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        ReplayEvaluator replayEvaluator = new ReplayEvaluator(bundleService.rules(), RuleFileWatcher.load(candidateRules), objectMapper, parallelism);
+        ReplayReport report = replayEvaluator.replay(journal, output);
+        log.info("Replay of {} against {} written to {}: {}", journal, candidateRules, output, report);
+    }
+}
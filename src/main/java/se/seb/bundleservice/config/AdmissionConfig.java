@@ -0,0 +1,39 @@
+package se.seb.bundleservice.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import se.seb.bundleservice.admission.AdmissionControlFilter;
+
+import java.util.Set;
+
+/**
+ * Puts {@link AdmissionControlFilter} in front of the servlet API. It runs after the metrics filter, so
+ * rejected requests still show up in {@code http.server.requests} with status 429.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "bundle.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            @Value("${bundle.admission.client-header:X-Client-Id}") String clientHeader,
+            @Value("${bundle.admission.trusted-proxies:}") Set<String> trustedProxies,
+            @Value("${bundle.admission.requests-per-second:200}") double requestsPerSecond,
+            @Value("${bundle.admission.burst:400}") int burst,
+            @Value("${bundle.admission.max-clients:10000}") int maxClients,
+            @Value("${bundle.admission.max-concurrent:64}") int maxConcurrent,
+            @Value("${bundle.admission.max-concurrent-batches:4}") int maxConcurrentBatches,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) throws JsonProcessingException {
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(new AdmissionControlFilter(
+                clientHeader, trustedProxies, requestsPerSecond, burst, maxClients, maxConcurrent, maxConcurrentBatches, objectMapper, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
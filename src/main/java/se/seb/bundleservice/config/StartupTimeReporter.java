@@ -0,0 +1,33 @@
+package se.seb.bundleservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+
+/**
+ * Logs how long the service took to become ready, counted from JVM start and including warm-up, which
+ * Spring Boot's own "Started ..." line does not cover. The same timing is published as the
+ * {@code application.ready.time} metric.
+ */
+@Slf4j
+@Component
+public class StartupTimeReporter {
+
+    private static final String SHARED_ARCHIVE_OPTION = "-XX:SharedArchiveFile=";
+
+    @EventListener
+    public void report(ApplicationReadyEvent event) {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        String archive = runtime.getInputArguments().stream()
+                .filter(argument -> argument.startsWith(SHARED_ARCHIVE_OPTION))
+                .map(argument -> argument.substring(SHARED_ARCHIVE_OPTION.length()))
+                .findFirst()
+                .orElse("none");
+        log.info("Ready to serve {} ms after JVM start ({} ms in Spring), CDS archive: {}",
+                runtime.getUptime(), event.getTimeTaken().toMillis(), archive);
+    }
+}
@@ -0,0 +1,44 @@
+package se.seb.bundleservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import se.seb.bundleservice.controller.PreSerializedJsonHttpMessageConverter;
+import se.seb.bundleservice.controller.ResponseJsonCache;
+import se.seb.bundleservice.controller.StreamingRequestDecoder;
+import se.seb.bundleservice.controller.StreamingRequestHttpMessageConverter;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final ResponseJsonCache responseJsonCache;
+    private final StreamingRequestDecoder streamingRequestDecoder;
+
+    public WebConfig(ObjectMapper objectMapper, @Value("${bundle.response-cache.max-entries:65536}") int responseCacheMaxEntries) {
+        this.objectMapper = objectMapper;
+        this.responseJsonCache = new ResponseJsonCache(objectMapper, responseCacheMaxEntries);
+        this.streamingRequestDecoder = new StreamingRequestDecoder(objectMapper.getFactory());
+    }
+
+    @Bean
+    public ResponseJsonCache responseJsonCache() {
+        return responseJsonCache;
+    }
+
+    @Bean
+    public StreamingRequestDecoder streamingRequestDecoder() {
+        return streamingRequestDecoder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new PreSerializedJsonHttpMessageConverter(objectMapper, responseJsonCache));
+        converters.add(1, new StreamingRequestHttpMessageConverter(objectMapper, streamingRequestDecoder));
+    }
+}
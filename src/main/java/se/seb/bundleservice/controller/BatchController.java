@@ -0,0 +1,130 @@
+package se.seb.bundleservice.controller;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RestController;
+import se.seb.bundleservice.model.BatchItemResult;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.service.BatchItemEvaluator;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+/**
+ * Batch variants of the bundle endpoints. The body is a JSON array or an NDJSON stream of requests; it is
+ * read in chunks, each chunk is evaluated in parallel, and the results are streamed back as NDJSON in input
+ * order with a per-item HTTP status.
+ */
+@RestController
+public class BatchController {
+
+    private final BatchItemEvaluator batchItemEvaluator;
+    private final ObjectMapper objectMapper;
+    private final ResponseJsonCache responseJsonCache;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public BatchController(BatchItemEvaluator batchItemEvaluator, ObjectMapper objectMapper, ResponseJsonCache responseJsonCache,
+                           @Value("${bundle.batch.parallelism:0}") int parallelism,
+                           @Value("${bundle.batch.chunk-size:1024}") int chunkSize) {
+        this.batchItemEvaluator = batchItemEvaluator;
+        this.objectMapper = objectMapper;
+        this.responseJsonCache = responseJsonCache;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = chunkSize;
+    }
+
+    @PostMapping(value = "/suggest/batch", consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE}, produces = APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Suggest bundles for a batch of customers")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "One NDJSON result per request, in input order, each with its own status")})
+    public void suggestBundles(InputStream body, HttpServletResponse response) throws IOException {
+        process(body, response, QuestionRequest.class, batchItemEvaluator::suggest);
+    }
+
+    @PutMapping(value = "/customize/batch", consumes = {APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE}, produces = APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Customize suggested bundles for a batch of customers")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "One NDJSON result per request, in input order, each with its own status")})
+    public void customizeSuggestions(InputStream body, HttpServletResponse response) throws IOException {
+        process(body, response, CustomizeBundleRequest.class, batchItemEvaluator::customize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private <T> void process(InputStream body, HttpServletResponse response, Class<T> type, ItemEvaluator<T> evaluator) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        try (MappingIterator<T> items = objectMapper.readerFor(type).readValues(body)) {
+            List<T> chunk = new ArrayList<>(chunkSize);
+            long offset = 0;
+            boolean more = true;
+            while (more) {
+                chunk.clear();
+                BatchItemResult failure = null;
+                try {
+                    while (chunk.size() < chunkSize && items.hasNextValue()) {
+                        chunk.add(items.nextValue());
+                    }
+                    more = chunk.size() == chunkSize;
+                } catch (JsonMappingException e) {
+                    // The iterator resyncs to the next value, so one unmappable item does not end the batch.
+                    failure = BatchItemEvaluator.invalid(offset + chunk.size(), e.getOriginalMessage());
+                } catch (IOException e) {
+                    failure = BatchItemEvaluator.invalid(offset + chunk.size(), "Malformed batch body: " + e.getMessage());
+                    more = false;
+                }
+                for (BatchItemResult result : evaluate(chunk, offset, evaluator)) {
+                    responseJsonCache.writeNdjsonLine(result, out);
+                }
+                offset += chunk.size();
+                if (failure != null) {
+                    responseJsonCache.writeNdjsonLine(failure, out);
+                    offset++;
+                }
+                out.flush();
+            }
+        }
+    }
+
+    private <T> BatchItemResult[] evaluate(List<T> chunk, long offset, ItemEvaluator<T> evaluator) {
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+        try {
+            pool.submit(() -> IntStream.range(0, results.length).parallel()
+                    .forEach(i -> results[i] = evaluator.evaluate(offset + i, chunk.get(i)))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating batch", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch evaluation failed", e.getCause());
+        }
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface ItemEvaluator<T> {
+        BatchItemResult evaluate(long index, T request);
+    }
+}
@@ -2,6 +2,7 @@ package se.seb.bundleservice.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.AllArgsConstructor;
@@ -10,14 +11,23 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import se.seb.bundleservice.model.BestBundleRequest;
+import se.seb.bundleservice.model.BestBundleResponse;
 import se.seb.bundleservice.model.BundleResponse;
 import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizeStepsRequest;
+import se.seb.bundleservice.model.CustomizeSuggestionRequest;
 import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.CustomizedStepsResponse;
+import se.seb.bundleservice.model.EligibilityResponse;
 import se.seb.bundleservice.model.QuestionRequest;
 import se.seb.bundleservice.service.BundleService;
-
-import javax.validation.Valid;
+import se.seb.bundleservice.service.DecodedBestBundleRequest;
+import se.seb.bundleservice.service.DecodedCustomizeRequest;
+import se.seb.bundleservice.service.DecodedCustomizeSteps;
+import se.seb.bundleservice.service.DecodedProductChanges;
 
 import static org.springframework.http.HttpStatus.CREATED;
 
@@ -25,16 +35,24 @@ import static org.springframework.http.HttpStatus.CREATED;
 @AllArgsConstructor
 @Validated
 public class BundleController {
+
+    public static final String SUGGESTION_TOKEN = "Suggestion-Token";
+
     private final BundleService bundleService;
 
     @PostMapping("/suggest")
     @Operation(summary = "Suggest bundle for customer")
     @ApiResponses({
-            @ApiResponse(responseCode = "201", description = "Suggested Bundle successfully"),
+            @ApiResponse(responseCode = "201", description = "Suggested Bundle successfully, with a " + SUGGESTION_TOKEN + " header when tokens are enabled"),
             @ApiResponse(responseCode = "451", description = "Unable to suggest any bundle due to legal reasons", content = @Content)})
-    public ResponseEntity<BundleResponse> suggestBundle(@Valid @RequestBody QuestionRequest request) {
-        return ResponseEntity.status(CREATED)
-                .body(bundleService.suggestBundle(request));
+    public ResponseEntity<BundleResponse> suggestBundle(@RequestBody QuestionRequest request) {
+        BundleResponse response = bundleService.suggestBundle(request);
+        String token = bundleService.suggestionToken(request);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(CREATED);
+        if (token != null) {
+            builder.header(SUGGESTION_TOKEN, token);
+        }
+        return builder.body(response);
     }
 
     @PutMapping("/customize")
@@ -42,7 +60,52 @@ public class BundleController {
     @ApiResponses({
             @ApiResponse(responseCode = "202", description = "Customized suggestion successfully"),
             @ApiResponse(responseCode = "451", description = "Unable to customize suggestion due to legal reasons", content = @Content)})
-    public ResponseEntity<CustomizedBundleResponse> customizeSuggestion(@Valid @RequestBody CustomizeBundleRequest request) {
+    public ResponseEntity<CustomizedBundleResponse> customizeSuggestion(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(schema = @Schema(implementation = CustomizeBundleRequest.class)))
+            @RequestBody DecodedCustomizeRequest request) {
         return bundleService.customizeBundle(request);
     }
+
+    @PutMapping(value = "/customize", headers = SUGGESTION_TOKEN)
+    @Operation(summary = "Customize the suggestion a " + SUGGESTION_TOKEN + " was issued for")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Customized suggestion successfully"),
+            @ApiResponse(responseCode = "400", description = "The token is malformed, forged or expired", content = @Content),
+            @ApiResponse(responseCode = "451", description = "Unable to customize suggestion due to legal reasons", content = @Content)})
+    public ResponseEntity<CustomizedBundleResponse> customizeSuggestionToken(
+            @RequestHeader(SUGGESTION_TOKEN) String token,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(schema = @Schema(implementation = CustomizeSuggestionRequest.class)))
+            @RequestBody DecodedProductChanges changes) {
+        return bundleService.customizeSuggestion(token, changes);
+    }
+
+    @PutMapping("/customize/steps")
+    @Operation(summary = "Customize suggested bundle by customer in steps, answering the state after each step")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Customized suggestion successfully after the last step"),
+            @ApiResponse(responseCode = "451", description = "Unable to customize suggestion after the last step due to legal reasons")})
+    public ResponseEntity<CustomizedStepsResponse> customizeSteps(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(schema = @Schema(implementation = CustomizeStepsRequest.class)))
+            @RequestBody DecodedCustomizeSteps request) {
+        return bundleService.customizeSteps(request);
+    }
+
+    @PostMapping("/eligibility")
+    @Operation(summary = "Tell which bundles and products the customer may choose")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Evaluated every bundle and product")})
+    public ResponseEntity<EligibilityResponse> eligibility(@RequestBody QuestionRequest request) {
+        return ResponseEntity.ok(bundleService.eligibility(request));
+    }
+
+    @PostMapping("/best-bundle")
+    @Operation(summary = "Find the closest legal products to the desired ones and the most valuable bundle to customize into them")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Found the closest legal products"),
+            @ApiResponse(responseCode = "451", description = "No products can be customized for this customer due to legal reasons")})
+    public ResponseEntity<BestBundleResponse> bestBundle(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(schema = @Schema(implementation = BestBundleRequest.class)))
+            @RequestBody DecodedBestBundleRequest request) {
+        return bundleService.bestBundle(request);
+    }
 }
@@ -0,0 +1,22 @@
+package se.seb.bundleservice.controller;
+
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * A request body rejected by {@link StreamingRequestDecoder}. Details come from a small, fixed set of
+ * messages and never echo the input, so {@link ProblemExceptionHandler} can answer them from cached
+ * bytes. Rejections are expected traffic rather than bugs, so no stack trace is captured.
+ */
+public class InvalidRequestException extends HttpMessageNotReadableException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidRequestException(String detail) {
+        super(detail, null, null);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
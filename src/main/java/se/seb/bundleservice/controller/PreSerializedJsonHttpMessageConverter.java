@@ -0,0 +1,61 @@
+package se.seb.bundleservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import se.seb.bundleservice.model.BundleResponse;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.EligibilityResponse;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Writes bundle responses from a {@link ResponseJsonCache}: the cached UTF-8 bytes go straight to the
+ * response stream together with a precomputed Content-Length and ETag. It only claims writing those
+ * responses; everything else is left to the default Jackson converter it extends.
+ */
+public class PreSerializedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final ResponseJsonCache responseJsonCache;
+
+    public PreSerializedJsonHttpMessageConverter(ObjectMapper objectMapper, ResponseJsonCache responseJsonCache) {
+        super(objectMapper);
+        this.responseJsonCache = responseJsonCache;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return isPreSerialized(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(clazz, mediaType);
+    }
+
+    @Override
+    protected void writeInternal(Object response, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ResponseJsonCache.SerializedJson json = responseJsonCache.serialize(response);
+        HttpHeaders headers = outputMessage.getHeaders();
+        headers.setContentLength(json.body().length);
+        headers.setETag(json.eTag());
+        outputMessage.getBody().write(json.body());
+    }
+
+    private static boolean isPreSerialized(Class<?> clazz) {
+        return BundleResponse.class == clazz || CustomizedBundleResponse.class == clazz || EligibilityResponse.class == clazz;
+    }
+}
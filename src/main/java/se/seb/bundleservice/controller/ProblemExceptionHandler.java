@@ -0,0 +1,36 @@
+package se.seb.bundleservice.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import se.seb.bundleservice.model.Problem;
+import se.seb.bundleservice.service.InvalidTokenException;
+
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON;
+
+/**
+ * Answers rejected requests with problem+json. The details form a finite set, so each body is serialized
+ * once and then served from the {@link ResponseJsonCache} like any other response.
+ */
+@RestControllerAdvice
+@AllArgsConstructor
+public class ProblemExceptionHandler {
+
+    private final ResponseJsonCache responseJsonCache;
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<byte[]> invalidRequest(InvalidRequestException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(APPLICATION_PROBLEM_JSON)
+                .body(responseJsonCache.serialize(Problem.badRequest(e.getMessage())).body());
+    }
+
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<byte[]> invalidToken(InvalidTokenException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(APPLICATION_PROBLEM_JSON)
+                .body(responseJsonCache.serialize(Problem.badRequest(BundleController.SUGGESTION_TOKEN + ": " + e.getMessage())).body());
+    }
+}
@@ -0,0 +1,117 @@
+package se.seb.bundleservice.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import se.seb.bundleservice.model.BatchItemResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32;
+
+/**
+ * Canonical JSON bytes of bundle responses. The service hands out a small, finite set of shared, immutable
+ * response instances from its decision tables, so after warm-up Jackson is no longer involved in writing
+ * them. Entries are keyed by identity: a lookup compares references instead of hashing the response's
+ * lists. The cache is a lock-free open-addressing table that stops admitting new entries once it holds
+ * {@code maxEntries}; responses beyond that are serialized on every call.
+ */
+public class ResponseJsonCache {
+
+    private static final byte[] BODY_FIELD = ",\"body\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LINE_END = "}\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public ResponseJsonCache(ObjectMapper objectMapper, int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        // At most half full, so probing always reaches an empty slot.
+        int capacity = Integer.highestOneBit(Math.max(maxEntries, 1)) << 2;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public SerializedJson serialize(Object response) {
+        int start = slot(response);
+        for (int i = start; ; i = (i + 1) & mask) {
+            Entry entry = slots.get(i);
+            if (entry == null) {
+                break;
+            }
+            if (entry.response == response) {
+                return entry.json;
+            }
+        }
+        SerializedJson json = SerializedJson.of(toBytes(response));
+        if (size.get() < maxEntries) {
+            admit(start, new Entry(response, json));
+        }
+        return json;
+    }
+
+    /**
+     * Writes one NDJSON line in the layout Jackson produces for {@link BatchItemResult}, with the body
+     * spliced in from the cache.
+     */
+    public void writeNdjsonLine(BatchItemResult result, OutputStream out) throws IOException {
+        if (result.getBody() == null) {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            return;
+        }
+        out.write(("{\"index\":" + result.getIndex() + ",\"status\":" + result.getStatus()).getBytes(StandardCharsets.US_ASCII));
+        out.write(BODY_FIELD);
+        out.write(serialize(result.getBody()).body());
+        out.write(LINE_END);
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    private void admit(int start, Entry admitted) {
+        for (int i = start; ; i = (i + 1) & mask) {
+            Entry entry = slots.get(i);
+            if (entry == null && slots.compareAndSet(i, null, admitted)) {
+                size.incrementAndGet();
+                return;
+            }
+            if (slots.get(i).response == admitted.response) {
+                return;
+            }
+        }
+    }
+
+    private int slot(Object response) {
+        int hash = System.identityHashCode(response);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private byte[] toBytes(Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private record Entry(Object response, SerializedJson json) {
+    }
+
+    public record SerializedJson(byte[] body, String eTag) {
+
+        static SerializedJson of(byte[] body) {
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            return new SerializedJson(body, "\"" + Long.toHexString(crc.getValue()) + "\"");
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package se.seb.bundleservice.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.Product;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.DecodedBestBundleRequest;
+import se.seb.bundleservice.service.DecodedCustomizeRequest;
+import se.seb.bundleservice.service.DecodedCustomizeSteps;
+import se.seb.bundleservice.service.DecodedProductChanges;
+import se.seb.bundleservice.service.ProductMask;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads {@link QuestionRequest}, {@link DecodedCustomizeRequest}, {@link DecodedProductChanges},
+ * {@link DecodedCustomizeSteps} and {@link DecodedBestBundleRequest} bodies token by token, without
+ * databind or bean validation. Enum values are matched against their names in the parser's own buffer and
+ * product lists are folded into masks as they are read. The {@code @NotNull}, {@code @Min(0)} and
+ * {@code @Size} constraints of the request models, including those of the nested question, are checked
+ * inline. Invalid bodies are reported as an {@link InvalidRequestException} in the validator's
+ * "path: message" form; syntax errors surface as Jackson's own {@code JsonProcessingException}.
+ * <p>
+ * Coercions follow the defaults of the application's ObjectMapper: unknown properties are skipped, enums
+ * also accept their index, and income accepts null, floats and numeric strings.
+ */
+public final class StreamingRequestDecoder {
+
+    private static final EnumNames<Age> AGES = new EnumNames<>(Age.values());
+    private static final EnumNames<Student> STUDENTS = new EnumNames<>(Student.values());
+    private static final EnumNames<Bundle> BUNDLES = new EnumNames<>(Bundle.values());
+    private static final EnumNames<Product> PRODUCTS = new EnumNames<>(Product.values());
+    private static final int MAX_STEPS = 64;
+    private static final String STEPS_SIZE = "steps: size must be between 1 and " + MAX_STEPS;
+
+    private final JsonFactory jsonFactory;
+
+    public StreamingRequestDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    public QuestionRequest readQuestion(InputStream in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            return readQuestion(parser);
+        }
+    }
+
+    public QuestionRequest readQuestion(byte[] data, int offset, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(data, offset, length)) {
+            return readQuestion(parser);
+        }
+    }
+
+    public DecodedCustomizeRequest readCustomize(InputStream in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            return readCustomize(parser);
+        }
+    }
+
+    public DecodedCustomizeRequest readCustomize(byte[] data, int offset, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(data, offset, length)) {
+            return readCustomize(parser);
+        }
+    }
+
+    public DecodedBestBundleRequest readBestBundle(InputStream in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            return readBestBundle(parser);
+        }
+    }
+
+    public DecodedCustomizeSteps readCustomizeSteps(InputStream in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            return readCustomizeSteps(parser);
+        }
+    }
+
+    public DecodedProductChanges readProductChanges(InputStream in) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            return readProductChanges(parser);
+        }
+    }
+
+    private static QuestionRequest readQuestion(JsonParser parser) throws IOException {
+        startObject(parser, "");
+        return readQuestionFields(parser, "");
+    }
+
+    private static QuestionRequest readQuestionFields(JsonParser parser, String path) throws IOException {
+        Age age = null;
+        Student student = null;
+        int income = 0;
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "age" -> age = AGES.read(parser, path + "age");
+                case "student" -> student = STUDENTS.read(parser, path + "student");
+                case "income" -> income = readInt(parser, path + "income");
+                default -> parser.skipChildren();
+            }
+        }
+        require(age, path + "age");
+        require(student, path + "student");
+        if (income < 0) {
+            throw new InvalidRequestException(path + "income: must be greater than or equal to 0");
+        }
+        return new QuestionRequest(age, student, income);
+    }
+
+    private static DecodedCustomizeRequest readCustomize(JsonParser parser) throws IOException {
+        startObject(parser, "");
+        Bundle bundle = null;
+        QuestionRequest question = null;
+        ProductChanges changes = new ProductChanges();
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "bundle" -> bundle = BUNDLES.read(parser, "bundle");
+                case "questionRequest" -> question = readNestedQuestion(parser, token);
+                case "removeProducts", "addProducts" -> changes.read(parser, field, field);
+                default -> parser.skipChildren();
+            }
+        }
+        require(bundle, "bundle");
+        require(question, "questionRequest");
+        return new DecodedCustomizeRequest(bundle, question.getAge(), question.getStudent(), question.getIncome(),
+                changes.removeProducts, changes.addProducts, changes.addProductsInRequestOrder());
+    }
+
+    private static DecodedCustomizeSteps readCustomizeSteps(JsonParser parser) throws IOException {
+        startObject(parser, "");
+        Bundle bundle = null;
+        QuestionRequest question = null;
+        List<DecodedProductChanges> steps = null;
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "bundle" -> bundle = BUNDLES.read(parser, "bundle");
+                case "questionRequest" -> question = readNestedQuestion(parser, token);
+                case "steps" -> steps = readSteps(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        require(bundle, "bundle");
+        require(question, "questionRequest");
+        require(steps, "steps");
+        if (steps.isEmpty()) {
+            throw new InvalidRequestException(STEPS_SIZE);
+        }
+        return new DecodedCustomizeSteps(bundle, question.getAge(), question.getStudent(), question.getIncome(), steps);
+    }
+
+    private static List<DecodedProductChanges> readSteps(JsonParser parser) throws IOException {
+        if (!startArray(parser, "steps")) {
+            return null;
+        }
+        List<DecodedProductChanges> steps = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (steps.size() == MAX_STEPS) {
+                throw new InvalidRequestException(STEPS_SIZE);
+            }
+            startObject(parser, "steps[]");
+            steps.add(readProductChanges(parser, "steps[]."));
+        }
+        return steps;
+    }
+
+    private static DecodedProductChanges readProductChanges(JsonParser parser) throws IOException {
+        startObject(parser, "");
+        return readProductChanges(parser, "");
+    }
+
+    private static DecodedProductChanges readProductChanges(JsonParser parser, String path) throws IOException {
+        ProductChanges changes = new ProductChanges();
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "removeProducts", "addProducts" -> changes.read(parser, field, path + field);
+                default -> parser.skipChildren();
+            }
+        }
+        return new DecodedProductChanges(changes.removeProducts, changes.addProducts, changes.addProductsInRequestOrder());
+    }
+
+    private static DecodedBestBundleRequest readBestBundle(JsonParser parser) throws IOException {
+        startObject(parser, "");
+        QuestionRequest question = null;
+        long products = ProductMask.NONE;
+        for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "questionRequest" -> question = readNestedQuestion(parser, token);
+                case "products" -> products = readProductMask(parser, "products");
+                default -> parser.skipChildren();
+            }
+        }
+        require(question, "questionRequest");
+        return new DecodedBestBundleRequest(question.getAge(), question.getStudent(), question.getIncome(), products);
+    }
+
+    private static QuestionRequest readNestedQuestion(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        startObject(parser, "questionRequest");
+        return readQuestionFields(parser, "questionRequest.");
+    }
+
+    private static long readProductMask(JsonParser parser, String path) throws IOException {
+        long products = ProductMask.NONE;
+        if (startArray(parser, path)) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                products |= ProductMask.of(readProduct(parser, path));
+            }
+        }
+        return products;
+    }
+
+    private static List<Product> unpack(long order) {
+        Product[] products = new Product[Long.SIZE / 4];
+        int size = 0;
+        for (long remaining = order; remaining != 0; remaining >>>= 4) {
+            products[size++] = PRODUCTS.values[(int) (remaining & 0xF) - 1];
+        }
+        return List.of(Arrays.copyOf(products, size));
+    }
+
+    private static void startObject(JsonParser parser, String path) throws IOException {
+        JsonToken token = path.isEmpty() ? parser.nextToken() : parser.currentToken();
+        if (token == null) {
+            throw new InvalidRequestException("Required request body is missing");
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new InvalidRequestException((path.isEmpty() ? "" : path + ": ") + "expected an object but found " + token);
+        }
+    }
+
+    private static boolean startArray(JsonParser parser, String path) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new InvalidRequestException(path + ": expected an array but found " + token);
+        }
+        return true;
+    }
+
+    private static Product readProduct(JsonParser parser, String path) throws IOException {
+        Product product = PRODUCTS.read(parser, path);
+        if (product == null) {
+            throw new InvalidRequestException(path + ": must not contain null");
+        }
+        return product;
+    }
+
+    private static int readInt(JsonParser parser, String path) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+                if (parser.getNumberType() != JsonParser.NumberType.INT) {
+                    throw new InvalidRequestException(path + ": out of range");
+                }
+                return parser.getIntValue();
+            case VALUE_NUMBER_FLOAT:
+                return (int) parser.getDoubleValue();
+            case VALUE_NULL:
+                return 0;
+            case VALUE_STRING:
+                try {
+                    return Integer.parseInt(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw new InvalidRequestException(path + ": not a number");
+                }
+            default:
+                throw new InvalidRequestException(path + ": expected a number but found " + parser.currentToken());
+        }
+    }
+
+    private static void require(Object value, String path) {
+        if (value == null) {
+            throw new InvalidRequestException(path + ": must not be null");
+        }
+    }
+
+    /**
+     * The removed and added products of a customization. Added products keep their order of first
+     * appearance, one ordinal + 1 per nibble, for when it is not ascending.
+     */
+    private static final class ProductChanges {
+
+        long removeProducts = ProductMask.NONE;
+        long addProducts = ProductMask.NONE;
+        long addOrder;
+        boolean addAscending = true;
+
+        void read(JsonParser parser, String field, String path) throws IOException {
+            if (field.equals("removeProducts")) {
+                removeProducts = readProductMask(parser, path);
+                return;
+            }
+            addProducts = ProductMask.NONE;
+            addOrder = 0;
+            addAscending = true;
+            int lastOrdinal = -1;
+            if (startArray(parser, path)) {
+                for (int shift = 0; parser.nextToken() != JsonToken.END_ARRAY; ) {
+                    Product product = readProduct(parser, path);
+                    if (!ProductMask.contains(addProducts, product)) {
+                        addAscending &= product.ordinal() > lastOrdinal;
+                        lastOrdinal = product.ordinal();
+                        addProducts |= ProductMask.of(product);
+                        addOrder |= (long) (product.ordinal() + 1) << shift;
+                        shift += 4;
+                    }
+                }
+            }
+        }
+
+        List<Product> addProductsInRequestOrder() {
+            return addAscending ? null : unpack(addOrder);
+        }
+    }
+
+    /**
+     * Enum constants with their names as chars, matched against the parser's text buffer so reading a
+     * value does not allocate a String. Unknown values are reported without echoing them.
+     */
+    private static final class EnumNames<E extends Enum<E>> {
+
+        private final E[] values;
+        private final char[][] names;
+        private final String unknown;
+
+        EnumNames(E[] values) {
+            this.values = values;
+            this.names = new char[values.length][];
+            this.unknown = ": must be one of " + Arrays.toString(values);
+            for (E value : values) {
+                names[value.ordinal()] = value.name().toCharArray();
+            }
+        }
+
+        E read(JsonParser parser, String path) throws IOException {
+            switch (parser.currentToken()) {
+                case VALUE_STRING: {
+                    char[] text = parser.getTextCharacters();
+                    int offset = parser.getTextOffset();
+                    int length = parser.getTextLength();
+                    for (int i = 0; i < names.length; i++) {
+                        if (Arrays.equals(names[i], 0, names[i].length, text, offset, offset + length)) {
+                            return values[i];
+                        }
+                    }
+                    throw new InvalidRequestException(path + unknown);
+                }
+                case VALUE_NUMBER_INT: {
+                    int index = parser.getIntValue();
+                    if (index >= 0 && index < values.length) {
+                        return values[index];
+                    }
+                    throw new InvalidRequestException(path + unknown);
+                }
+                case VALUE_NULL:
+                    return null;
+                default:
+                    throw new InvalidRequestException(path + ": expected a string but found " + parser.currentToken());
+            }
+        }
+    }
+}
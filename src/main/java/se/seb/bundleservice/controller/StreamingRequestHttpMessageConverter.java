@@ -0,0 +1,83 @@
+package se.seb.bundleservice.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.service.DecodedBestBundleRequest;
+import se.seb.bundleservice.service.DecodedCustomizeRequest;
+import se.seb.bundleservice.service.DecodedCustomizeSteps;
+import se.seb.bundleservice.service.DecodedProductChanges;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Reads bundle requests with a {@link StreamingRequestDecoder}. Malformed or invalid bodies are reported as
+ * an {@link InvalidRequestException}, which {@link ProblemExceptionHandler} answers with 400. Jackson's
+ * syntax errors quote the input, so they are reduced to a fixed detail. It only claims reading those
+ * requests; everything else is left to the default Jackson converter it extends.
+ */
+public class StreamingRequestHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private static final String MALFORMED_BODY = "Malformed JSON request body";
+
+    private final StreamingRequestDecoder decoder;
+
+    public StreamingRequestHttpMessageConverter(ObjectMapper objectMapper, StreamingRequestDecoder decoder) {
+        super(objectMapper);
+        this.decoder = decoder;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return isDecoded(clazz) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type instanceof Class<?> clazz && canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal((Class<?>) type, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            if (clazz == QuestionRequest.class) {
+                return decoder.readQuestion(inputMessage.getBody());
+            }
+            if (clazz == DecodedCustomizeRequest.class) {
+                return decoder.readCustomize(inputMessage.getBody());
+            }
+            if (clazz == DecodedProductChanges.class) {
+                return decoder.readProductChanges(inputMessage.getBody());
+            }
+            return clazz == DecodedCustomizeSteps.class
+                    ? decoder.readCustomizeSteps(inputMessage.getBody())
+                    : decoder.readBestBundle(inputMessage.getBody());
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException(MALFORMED_BODY);
+        }
+    }
+
+    private static boolean isDecoded(Class<?> clazz) {
+        return QuestionRequest.class == clazz || DecodedCustomizeRequest.class == clazz
+                || DecodedProductChanges.class == clazz || DecodedCustomizeSteps.class == clazz || DecodedBestBundleRequest.class == clazz;
+    }
+}
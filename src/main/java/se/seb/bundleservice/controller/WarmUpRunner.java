@@ -0,0 +1,257 @@
+package se.seb.bundleservice.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.BestBundleRequest;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizeStep;
+import se.seb.bundleservice.model.CustomizeStepsRequest;
+import se.seb.bundleservice.model.Product;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.CustomizationTable;
+import se.seb.bundleservice.service.DecodedBestBundleRequest;
+import se.seb.bundleservice.service.DecodedCustomizeRequest;
+import se.seb.bundleservice.service.DecodedCustomizeSteps;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static se.seb.bundleservice.model.Product.CREDIT_CARD;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT_PLUS;
+import static se.seb.bundleservice.model.Product.DEBIT_CARD;
+import static se.seb.bundleservice.model.Product.GOLD_CREDIT_CARD;
+
+/**
+ * Drives every decision path through the MVC message converters, {@link BundleController} and
+ * {@link ProblemExceptionHandler} at startup, so C2 has compiled them before real traffic arrives. Spring
+ * Boot only reports readiness once all application runners have finished, so a load balancer polling
+ * {@code /actuator/health/readiness} never routes to a cold JVM.
+ * <p>
+ * Requests are evaluated by a {@link BundleService#detached detached} service, keeping warm-up traffic out
+ * of the decision metrics, logs, audit trail and shadow evaluation. The controller is called directly
+ * rather than through the {@code DispatcherServlet}, so this warms the code behind the decision table
+ * lookups, message converters and controller methods, and fills the shared {@link ResponseJsonCache}. It
+ * does not warm Tomcat, the servlet filters, request mapping and argument resolution, nor the live
+ * service's metrics, logging, journal and shadow code; those still warm up on the first real requests.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "bundle.warm-up", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final List<byte[]> INVALID_BODIES = List.of(
+            new byte[0],
+            "{\"age\":\"ADULT\",\"student\":\"NO\",\"income\":-1}".getBytes(StandardCharsets.UTF_8),
+            "{\"bundle\":\"GOLD\",\"questionRequest\":{\"age\":\"TEENAGER\"}}".getBytes(StandardCharsets.UTF_8),
+            "{\"bundle\":\"GOLD\",".getBytes(StandardCharsets.UTF_8));
+
+    private final BundleService bundleService;
+    private final CustomizationTable.FillMode fillMode;
+    private final long fillBudgetMillis;
+    private final RequestMappingHandlerAdapter handlerAdapter;
+    private final ProblemExceptionHandler problemExceptionHandler;
+    private final ObjectMapper objectMapper;
+    private final int iterations;
+
+    public WarmUpRunner(BundleService bundleService,
+                        @Value("${bundle.customization-table.fill-mode:EAGER}") CustomizationTable.FillMode fillMode,
+                        @Value("${bundle.customization-table.fill-budget-millis:500}") long fillBudgetMillis,
+                        RequestMappingHandlerAdapter handlerAdapter, ProblemExceptionHandler problemExceptionHandler,
+                        ObjectMapper objectMapper, @Value("${bundle.warm-up.iterations:10}") int iterations) {
+        this.bundleService = bundleService;
+        this.fillMode = fillMode;
+        this.fillBudgetMillis = fillBudgetMillis;
+        this.handlerAdapter = handlerAdapter;
+        this.problemExceptionHandler = problemExceptionHandler;
+        this.objectMapper = objectMapper;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        long start = System.nanoTime();
+        BundleService warmUpService = BundleService.detached(fillMode, fillBudgetMillis, bundleService.rules());
+        BundleController controller = new BundleController(warmUpService);
+        List<byte[]> questions = questions(warmUpService.rules().incomeSamples());
+        List<byte[]> customizations = customizations(questions);
+        List<byte[]> customizationSteps = customizationSteps(questions);
+        List<byte[]> bestBundles = bestBundles(questions);
+        long requests = 0;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (byte[] question : questions) {
+                write(controller.suggestBundle(read(QuestionRequest.class, question)));
+            }
+            for (byte[] customization : customizations) {
+                write(controller.customizeSuggestion(read(DecodedCustomizeRequest.class, customization)));
+            }
+            for (byte[] steps : customizationSteps) {
+                write(controller.customizeSteps(read(DecodedCustomizeSteps.class, steps)));
+            }
+            for (byte[] question : questions) {
+                write(controller.eligibility(read(QuestionRequest.class, question)));
+            }
+            for (byte[] bestBundle : bestBundles) {
+                write(controller.bestBundle(read(DecodedBestBundleRequest.class, bestBundle)));
+            }
+            for (byte[] invalid : INVALID_BODIES) {
+                try {
+                    read(DecodedCustomizeRequest.class, invalid);
+                } catch (InvalidRequestException e) {
+                    write(problemExceptionHandler.invalidRequest(e));
+                }
+            }
+            requests += 2 * questions.size() + customizations.size() + customizationSteps.size() + bestBundles.size() + INVALID_BODIES.size();
+        }
+        log.info("Warmed up with {} requests in {} ms", requests, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<byte[]> questions(int[] incomes) throws JsonProcessingException {
+        List<byte[]> questions = new ArrayList<>();
+        for (Age age : Age.values()) {
+            for (Student student : Student.values()) {
+                for (int income : incomes) {
+                    questions.add(objectMapper.writeValueAsBytes(new QuestionRequest(age, student, income)));
+                }
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * Per bundle and question: no change, every single product added, products added out of order, all of
+     * the bundle's products removed, and the bundle's products swapped for a current account.
+     */
+    private List<byte[]> customizations(List<byte[]> questions) throws IOException {
+        List<List<Product>> adds = new ArrayList<>();
+        adds.add(List.of());
+        for (Product product : Product.values()) {
+            adds.add(List.of(product));
+        }
+        adds.add(List.of(CREDIT_CARD, CURRENT_ACCOUNT_PLUS));
+        List<byte[]> customizations = new ArrayList<>();
+        for (byte[] json : questions) {
+            QuestionRequest question = objectMapper.readValue(json, QuestionRequest.class);
+            for (Bundle bundle : Bundle.values()) {
+                for (List<Product> add : adds) {
+                    customizations.add(objectMapper.writeValueAsBytes(new CustomizeBundleRequest(bundle, question, List.of(), add)));
+                }
+                customizations.add(objectMapper.writeValueAsBytes(new CustomizeBundleRequest(bundle, question, bundle.getProducts(), null)));
+                customizations.add(objectMapper.writeValueAsBytes(new CustomizeBundleRequest(bundle, question, bundle.getProducts(), List.of(CURRENT_ACCOUNT, DEBIT_CARD))));
+            }
+        }
+        return customizations;
+    }
+
+    /**
+     * Per bundle and question: products added out of order, the bundle's products removed, and an account
+     * and debit card added back, one step after the other.
+     */
+    private List<byte[]> customizationSteps(List<byte[]> questions) throws IOException {
+        List<byte[]> customizationSteps = new ArrayList<>();
+        for (byte[] json : questions) {
+            QuestionRequest question = objectMapper.readValue(json, QuestionRequest.class);
+            for (Bundle bundle : Bundle.values()) {
+                customizationSteps.add(objectMapper.writeValueAsBytes(new CustomizeStepsRequest(bundle, question, List.of(
+                        new CustomizeStep(null, List.of(CREDIT_CARD, CURRENT_ACCOUNT_PLUS)),
+                        new CustomizeStep(bundle.getProducts(), null),
+                        new CustomizeStep(null, List.of(CURRENT_ACCOUNT, DEBIT_CARD))))));
+            }
+        }
+        return customizationSteps;
+    }
+
+    /**
+     * Per bundle and question: the bundle's own products, and those products plus a gold credit card.
+     */
+    private List<byte[]> bestBundles(List<byte[]> questions) throws IOException {
+        List<byte[]> bestBundles = new ArrayList<>();
+        for (byte[] json : questions) {
+            QuestionRequest question = objectMapper.readValue(json, QuestionRequest.class);
+            for (Bundle bundle : Bundle.values()) {
+                List<Product> withGoldCard = new ArrayList<>(bundle.getProducts());
+                withGoldCard.add(GOLD_CREDIT_CARD);
+                bestBundles.add(objectMapper.writeValueAsBytes(new BestBundleRequest(question, bundle.getProducts())));
+                bestBundles.add(objectMapper.writeValueAsBytes(new BestBundleRequest(question, withGoldCard)));
+            }
+        }
+        return bestBundles;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T read(Class<T> type, byte[] body) throws IOException {
+        for (HttpMessageConverter<?> converter : handlerAdapter.getMessageConverters()) {
+            if (converter.canRead(type, MediaType.APPLICATION_JSON)) {
+                return ((HttpMessageConverter<T>) converter).read(type, new RequestBody(body));
+            }
+        }
+        throw new IllegalStateException("No message converter reads " + type.getSimpleName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(ResponseEntity<?> response) throws IOException {
+        Object body = response.getBody();
+        MediaType contentType = response.getHeaders().getContentType();
+        for (HttpMessageConverter<?> converter : handlerAdapter.getMessageConverters()) {
+            if (converter.canWrite(body.getClass(), contentType)) {
+                ((HttpMessageConverter<Object>) converter).write(body, contentType, new DiscardedResponse());
+                return;
+            }
+        }
+        throw new IllegalStateException("No message converter writes " + body.getClass().getSimpleName());
+    }
+
+    private record RequestBody(byte[] body) implements HttpInputMessage {
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            return headers;
+        }
+    }
+
+    private static final class DiscardedResponse implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
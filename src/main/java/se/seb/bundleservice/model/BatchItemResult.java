@@ -0,0 +1,16 @@
+package se.seb.bundleservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    long index;
+    int status;
+    Object body;
+    String error;
+}
@@ -0,0 +1,18 @@
+package se.seb.bundleservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestBundleRequest {
+
+    @NotNull
+    QuestionRequest questionRequest;
+    List<Product> products;
+}
@@ -0,0 +1,18 @@
+package se.seb.bundleservice.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Value
+@Builder
+public class BestBundleResponse {
+
+    @NotEmpty
+    String bundleName;
+    List<Product> products;
+    List<Product> addProducts;
+    List<Product> droppedProducts;
+}
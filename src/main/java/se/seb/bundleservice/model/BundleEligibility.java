@@ -0,0 +1,17 @@
+package se.seb.bundleservice.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class BundleEligibility {
+
+    Bundle bundle;
+    String bundleName;
+    boolean allowed;
+    List<Violations> violations;
+    List<Product> illegalProducts;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import java.util.List;
 
@@ -14,6 +15,7 @@ public class CustomizeBundleRequest {
 
     @NotNull
     Bundle bundle;
+    @Valid
     @NotNull
     QuestionRequest questionRequest;
     List<Product> removeProducts;
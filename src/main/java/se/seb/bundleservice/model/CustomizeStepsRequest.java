@@ -0,0 +1,23 @@
+package se.seb.bundleservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomizeStepsRequest {
+
+    @NotNull
+    Bundle bundle;
+    @NotNull
+    QuestionRequest questionRequest;
+    @NotNull
+    @Size(min = 1, max = 64)
+    List<CustomizeStep> steps;
+}
@@ -0,0 +1,16 @@
+package se.seb.bundleservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomizeSuggestionRequest {
+
+    List<Product> removeProducts;
+    List<Product> addProducts;
+}
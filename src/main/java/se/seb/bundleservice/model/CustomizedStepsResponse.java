@@ -0,0 +1,13 @@
+package se.seb.bundleservice.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class CustomizedStepsResponse {
+
+    List<CustomizedBundleResponse> steps;
+}
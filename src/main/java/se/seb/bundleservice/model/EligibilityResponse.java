@@ -0,0 +1,14 @@
+package se.seb.bundleservice.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class EligibilityResponse {
+
+    List<BundleEligibility> bundles;
+    List<ProductEligibility> products;
+}
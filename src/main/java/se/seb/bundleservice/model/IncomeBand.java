@@ -0,0 +1,8 @@
+package se.seb.bundleservice.model;
+
+/**
+ * Income bands in ascending order. The income limits of each band come from the active rule set.
+ */
+public enum IncomeBand {
+    ZERO, UP_TO_12K, UP_TO_40K, MORE_THAN_40K
+}
@@ -0,0 +1,32 @@
+package se.seb.bundleservice.model;
+
+import lombok.Value;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An RFC 7807 problem+json body.
+ */
+@Value
+public class Problem {
+
+    private static final ConcurrentMap<String, Problem> BAD_REQUESTS = new ConcurrentHashMap<>();
+
+    String type;
+    String title;
+    int status;
+    String detail;
+
+    /**
+     * The 400 problem for {@code detail}. Details come from a fixed set, so each problem is created once and
+     * shared, which lets the identity-keyed response cache serve its bytes.
+     */
+    public static Problem badRequest(String detail) {
+        return BAD_REQUESTS.computeIfAbsent(detail, key -> new Problem("about:blank", "Bad Request", 400, key));
+    }
+
+    public static Problem tooManyRequests(String detail) {
+        return new Problem("about:blank", "Too Many Requests", 429, detail);
+    }
+}
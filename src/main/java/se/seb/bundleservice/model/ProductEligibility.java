@@ -0,0 +1,15 @@
+package se.seb.bundleservice.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class ProductEligibility {
+
+    Product product;
+    boolean allowed;
+    List<Violations> violations;
+}
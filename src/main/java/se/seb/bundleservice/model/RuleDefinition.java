@@ -0,0 +1,29 @@
+package se.seb.bundleservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Bundle rules as written in the rules file. Income bands are listed in ascending order and map onto
+ * {@link IncomeBand} by position; the last band has no {@code maxIncome}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleDefinition {
+    Rule underAge;
+    Rule student;
+    List<Rule> incomeBands;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rule {
+        Integer maxIncome;
+        Bundle bundle;
+        List<Product> forbiddenProducts;
+    }
+}
@@ -0,0 +1,106 @@
+package se.seb.bundleservice.reactive;
+
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import se.seb.bundleservice.controller.ResponseJsonCache;
+import se.seb.bundleservice.model.BatchItemResult;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.Problem;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.service.BatchItemEvaluator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON;
+
+/**
+ * The bundle API as functional WebFlux routes, with the same contracts as {@code BundleController} and
+ * {@code BatchController}: 201 for suggestions, 202 or 451 for customizations, 400 with problem+json for
+ * invalid requests.
+ * Request bodies are decoded without blocking, and batch bodies are evaluated and streamed back item by
+ * item as they arrive.
+ */
+public class ReactiveBundleRoutes {
+
+    private static final BatchItemResult MISSING_BODY = BatchItemEvaluator.invalid(0, "Required request body is missing");
+    private static final BatchItemResult MALFORMED_BODY = BatchItemEvaluator.invalid(0, "Malformed request body");
+
+    private final BatchItemEvaluator batchItemEvaluator;
+    private final ResponseJsonCache responseJsonCache;
+
+    public ReactiveBundleRoutes(BatchItemEvaluator batchItemEvaluator, ResponseJsonCache responseJsonCache) {
+        this.batchItemEvaluator = batchItemEvaluator;
+        this.responseJsonCache = responseJsonCache;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .POST("/suggest", request -> single(request, QuestionRequest.class, batchItemEvaluator::suggest))
+                .PUT("/customize", request -> single(request, CustomizeBundleRequest.class, batchItemEvaluator::customize))
+                .POST("/suggest/batch", request -> batch(request, QuestionRequest.class, batchItemEvaluator::suggest))
+                .PUT("/customize/batch", request -> batch(request, CustomizeBundleRequest.class, batchItemEvaluator::customize))
+                .build();
+    }
+
+    private <T> Mono<ServerResponse> single(ServerRequest request, Class<T> type, ItemEvaluator<T> evaluator) {
+        return request.bodyToMono(type)
+                .map(item -> evaluator.evaluate(0, item))
+                .defaultIfEmpty(MISSING_BODY)
+                .onErrorResume(CodecException.class, e -> Mono.just(MALFORMED_BODY))
+                .flatMap(this::respond);
+    }
+
+    private Mono<ServerResponse> respond(BatchItemResult result) {
+        if (result.getBody() == null) {
+            return ServerResponse.status(result.getStatus())
+                    .contentType(APPLICATION_PROBLEM_JSON)
+                    .bodyValue(responseJsonCache.serialize(Problem.badRequest(result.getError())).body());
+        }
+        ResponseJsonCache.SerializedJson json = responseJsonCache.serialize(result.getBody());
+        return ServerResponse.status(result.getStatus())
+                .contentType(APPLICATION_JSON)
+                .eTag(json.eTag())
+                .bodyValue(json.body());
+    }
+
+    private <T> Mono<ServerResponse> batch(ServerRequest request, Class<T> type, ItemEvaluator<T> evaluator) {
+        DataBufferFactory bufferFactory = request.exchange().getResponse().bufferFactory();
+        AtomicLong index = new AtomicLong();
+        // Unlike the servlet batch endpoints, a body that cannot be decoded ends the stream after its error line.
+        Flux<DataBuffer> lines = request.bodyToFlux(type)
+                .map(item -> evaluator.evaluate(index.getAndIncrement(), item))
+                .onErrorResume(CodecException.class, e -> Mono.fromSupplier(() -> BatchItemEvaluator.invalid(index.get(), "Malformed batch body")))
+                .map(result -> bufferFactory.wrap(toNdjsonLine(result)));
+        return ServerResponse.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(BodyInserters.fromDataBuffers(lines));
+    }
+
+    private byte[] toNdjsonLine(BatchItemResult result) {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        try {
+            responseJsonCache.writeNdjsonLine(result, line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return line.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface ItemEvaluator<T> {
+        BatchItemResult evaluate(long index, T request);
+    }
+}
@@ -0,0 +1,53 @@
+package se.seb.bundleservice.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import se.seb.bundleservice.controller.ResponseJsonCache;
+import se.seb.bundleservice.service.BatchItemEvaluator;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Serves {@link ReactiveBundleRoutes} on a Reactor Netty event loop at {@code bundle.reactive.port}, next to
+ * the servlet API. Only started when the port is configured. Requests on this port do not pass through the
+ * servlet filters, so they are not recorded in {@code http.server.requests} and bypass admission control.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bundle.reactive", name = "port")
+public class ReactiveServer {
+
+    private final DisposableServer server;
+
+    public ReactiveServer(BatchItemEvaluator batchItemEvaluator, ResponseJsonCache responseJsonCache, ObjectMapper objectMapper,
+                          @Value("${bundle.reactive.port}") int port) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                })
+                .build();
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(new ReactiveBundleRoutes(batchItemEvaluator, responseJsonCache).routes(), strategies);
+        this.server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Reactive bundle API listening on port {}", server.port());
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.disposeNow();
+    }
+}
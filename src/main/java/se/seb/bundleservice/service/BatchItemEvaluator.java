@@ -0,0 +1,97 @@
+package se.seb.bundleservice.service;
+
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import se.seb.bundleservice.model.BatchItemResult;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.QuestionRequest;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates single items of a batch the way the HTTP endpoints would, but reports invalid input as a
+ * per-item 400 result instead of failing the whole batch.
+ */
+@Service
+@AllArgsConstructor
+public class BatchItemEvaluator {
+
+    private final BundleService bundleService;
+    private final Validator validator;
+
+    public BatchItemResult suggest(long index, QuestionRequest request) {
+        String error = validate(request);
+        if (error != null) {
+            return invalid(index, error);
+        }
+        return BatchItemResult.builder()
+                .index(index)
+                .status(HttpStatus.CREATED.value())
+                .body(bundleService.suggestBundle(request))
+                .build();
+    }
+
+    public BatchItemResult customize(long index, CustomizeBundleRequest request) {
+        String error = validate(request);
+        if (error != null) {
+            return invalid(index, error);
+        }
+        ResponseEntity<CustomizedBundleResponse> response = bundleService.customizeBundle(request);
+        return BatchItemResult.builder()
+                .index(index)
+                .status(response.getStatusCodeValue())
+                .body(response.getBody())
+                .build();
+    }
+
+    /**
+     * Suggests for a request whose constraints were already checked while decoding it.
+     */
+    public BatchItemResult suggestDecoded(long index, QuestionRequest request) {
+        return BatchItemResult.builder()
+                .index(index)
+                .status(HttpStatus.CREATED.value())
+                .body(bundleService.suggestBundle(request))
+                .build();
+    }
+
+    /**
+     * Customizes for a request whose constraints were already checked while decoding it.
+     */
+    public BatchItemResult customizeDecoded(long index, DecodedCustomizeRequest request) {
+        ResponseEntity<CustomizedBundleResponse> response = bundleService.customizeBundle(request);
+        return BatchItemResult.builder()
+                .index(index)
+                .status(response.getStatusCodeValue())
+                .body(response.getBody())
+                .build();
+    }
+
+    public static BatchItemResult invalid(long index, String error) {
+        return BatchItemResult.builder()
+                .index(index)
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error(error)
+                .build();
+    }
+
+    private String validate(Object request) {
+        if (request == null) {
+            return "must not be null";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,114 @@
+package se.seb.bundleservice.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import se.seb.bundleservice.model.BestBundleResponse;
+import se.seb.bundleservice.model.Bundle;
+
+import java.util.List;
+
+/**
+ * The closest legal product set and best bundle for every customer segment and desired product mask.
+ * <p>
+ * A product set is legal when /customize accepts it. For each segment, every desired mask is matched
+ * against all 128 product sets. The closest legal set differs from the desired one in the fewest
+ * products. Ties go to the set that drops the fewest desired products, then to the one reachable from the
+ * most valuable bundle, then to the lowest mask. The bundle is the highest-{@link Bundle#getValue() value}
+ * bundle whose products all belong to the set, preferring the larger bundle on equal value; customizing it
+ * by adding the remaining products gives the set. A segment without any legal set, such as under-age
+ * customers who cannot customize at all, is answered with 451 and its suggested bundle.
+ */
+final class BestBundleTable {
+
+    @FunctionalInterface
+    interface Legality {
+        boolean isLegal(int segment, long products);
+    }
+
+    private static final Bundle[] BUNDLES = Bundle.values();
+    private static final int MASKS = (int) ProductMask.ALL + 1;
+
+    private final ResponseEntity<BestBundleResponse>[] entries;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BestBundleTable(RuleSet rules, Legality legality) {
+        this.entries = new ResponseEntity[CustomerSegment.COUNT * MASKS];
+        Bundle[] bundles = new Bundle[MASKS];
+        for (int products = 0; products < MASKS; products++) {
+            bundles[products] = bestBundle(products);
+        }
+        for (int segment = 0; segment < CustomerSegment.COUNT; segment++) {
+            long[] legal = new long[MASKS];
+            int legalCount = 0;
+            for (int products = 0; products < MASKS; products++) {
+                if (legality.isLegal(segment, products)) {
+                    legal[legalCount++] = products;
+                }
+            }
+            for (int desired = 0; desired < MASKS; desired++) {
+                entries[segment * MASKS + desired] = legalCount == 0
+                        ? unavailable(rules.suggestion(segment), desired)
+                        : closest(desired, legal, legalCount, bundles);
+            }
+        }
+    }
+
+    ResponseEntity<BestBundleResponse> lookup(int segment, long desired) {
+        return entries[segment * MASKS + (int) desired];
+    }
+
+    private static ResponseEntity<BestBundleResponse> closest(long desired, long[] legal, int legalCount, Bundle[] bundles) {
+        long best = legal[0];
+        for (int i = 1; i < legalCount; i++) {
+            if (isCloser(legal[i], best, desired, bundles)) {
+                best = legal[i];
+            }
+        }
+        Bundle bundle = bundles[(int) best];
+        long bundleProducts = ProductMask.of(bundle);
+        BestBundleResponse response = BestBundleResponse.builder()
+                .bundleName(bundle.getName())
+                .products(ProductMask.toList(best, bundle.getProducts(), ProductMask.toList(best)))
+                .addProducts(ProductMask.toList(best & ~bundleProducts))
+                .droppedProducts(ProductMask.toList(desired & ~best))
+                .build();
+        return new ResponseEntity<>(response, HttpHeaders.EMPTY, HttpStatus.OK);
+    }
+
+    private static boolean isCloser(long candidate, long best, long desired, Bundle[] bundles) {
+        int distance = Long.bitCount(candidate ^ desired) - Long.bitCount(best ^ desired);
+        if (distance != 0) {
+            return distance < 0;
+        }
+        int dropped = Long.bitCount(desired & ~candidate) - Long.bitCount(desired & ~best);
+        if (dropped != 0) {
+            return dropped < 0;
+        }
+        int value = bundles[(int) candidate].getValue() - bundles[(int) best].getValue();
+        return value > 0;
+    }
+
+    private static Bundle bestBundle(long products) {
+        Bundle best = Bundle.EMPTY;
+        for (Bundle bundle : BUNDLES) {
+            long bundleProducts = ProductMask.of(bundle);
+            if ((bundleProducts & ~products) == 0
+                    && (bundle.getValue() > best.getValue()
+                    || bundle.getValue() == best.getValue() && Long.bitCount(bundleProducts) > Long.bitCount(ProductMask.of(best)))) {
+                best = bundle;
+            }
+        }
+        return best;
+    }
+
+    private static ResponseEntity<BestBundleResponse> unavailable(Bundle suggestion, long desired) {
+        BestBundleResponse response = BestBundleResponse.builder()
+                .bundleName(suggestion.getName())
+                .products(suggestion.getProducts())
+                .addProducts(List.of())
+                .droppedProducts(ProductMask.toList(desired))
+                .build();
+        return new ResponseEntity<>(response, HttpHeaders.EMPTY, HttpStatus.UNAVAILABLE_FOR_LEGAL_REASONS);
+    }
+}
@@ -1,201 +1,246 @@
 package se.seb.bundleservice.service;
 
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
+import se.seb.bundleservice.model.BestBundleResponse;
 import se.seb.bundleservice.model.Bundle;
 import se.seb.bundleservice.model.BundleResponse;
 import se.seb.bundleservice.model.CustomizeBundleRequest;
 import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.CustomizedStepsResponse;
+import se.seb.bundleservice.model.EligibilityResponse;
 import se.seb.bundleservice.model.Product;
 import se.seb.bundleservice.model.QuestionRequest;
 import se.seb.bundleservice.model.Status;
-import se.seb.bundleservice.model.Student;
 import se.seb.bundleservice.model.Violations;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static se.seb.bundleservice.model.Age.UNDER_AGE;
-import static se.seb.bundleservice.model.Bundle.CLASSIC;
-import static se.seb.bundleservice.model.Bundle.CLASSIC_PLUS;
-import static se.seb.bundleservice.model.Bundle.EMPTY;
-import static se.seb.bundleservice.model.Bundle.GOLD;
-import static se.seb.bundleservice.model.Bundle.JUNIOR_SAVER;
-import static se.seb.bundleservice.model.Bundle.STUDENT;
 import static se.seb.bundleservice.model.Violations.ACCOUNT_ISSUE;
-import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_MORE_THAN_40K;
-import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_UP_TO_12K;
-import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_UP_TO_40K;
-import static se.seb.bundleservice.model.Violations.INCOME_ZERO;
+import static se.seb.bundleservice.model.Violations.JUNIOR_ISSUE;
 
 
 @Service
 @Slf4j
-@AllArgsConstructor
 public class BundleService {
 
-    public BundleResponse suggestBundle(QuestionRequest request) {
-        return switch (request.getAge()) {
-            case UNDER_AGE -> getBundleResponse(JUNIOR_SAVER);
-            case ADULT, PENSION -> suggestAdultBundle(request);
-        };
+    private static final Product[] PRODUCTS = Product.values();
+
+    private final CustomizationTable.FillMode fillMode;
+    private final long fillBudgetMillis;
+    private final DecisionMetrics decisionMetrics;
+    private final ViolationEventLog violationEventLog;
+    private final DecisionJournal decisionJournal;
+    private final ShadowEvaluator shadowEvaluator;
+    private final SuggestionTokens suggestionTokens;
+    private final AtomicReference<Decisions> decisions = new AtomicReference<>();
+
+    public BundleService(@Value("${bundle.customization-table.fill-mode:EAGER}") CustomizationTable.FillMode fillMode,
+                         @Value("${bundle.customization-table.fill-budget-millis:500}") long fillBudgetMillis,
+                         DecisionMetrics decisionMetrics,
+                         ViolationEventLog violationEventLog,
+                         DecisionJournal decisionJournal,
+                         ShadowEvaluator shadowEvaluator,
+                         SuggestionTokens suggestionTokens) {
+        this.fillMode = fillMode;
+        this.fillBudgetMillis = fillBudgetMillis;
+        this.decisionMetrics = decisionMetrics;
+        this.violationEventLog = violationEventLog;
+        this.decisionJournal = decisionJournal;
+        this.shadowEvaluator = shadowEvaluator;
+        this.suggestionTokens = suggestionTokens;
+        this.decisions.set(compile(RuleSet.defaults()));
+    }
+
+    /**
+     * A service evaluating {@code rules} that records no metrics, violations or journal entries, shadows
+     * nothing and issues no suggestion tokens, for evaluations that are not live traffic.
+     */
+    public static BundleService detached(CustomizationTable.FillMode fillMode, long fillBudgetMillis, RuleSet rules) {
+        BundleService bundleService = new BundleService(fillMode, fillBudgetMillis, new DecisionMetrics(new SimpleMeterRegistry()),
+                new ViolationEventLog(16, 1, 0), DecisionJournal.disabled(), ShadowEvaluator.disabled(), SuggestionTokens.disabled());
+        bundleService.apply(rules);
+        return bundleService;
+    }
+
+    /**
+     * Builds the decision tables for {@code rules} and swaps them in. Requests already running finish
+     * against the tables they started with.
+     */
+    public void apply(RuleSet rules) {
+        decisions.set(compile(rules));
+        log.info("Applied new bundle rules");
+    }
+
+    public RuleSet rules() {
+        return decisions.get().rules();
     }
 
-    public ResponseEntity<CustomizedBundleResponse> customizeBundle(CustomizeBundleRequest customizeBundleRequest) {
-        CustomizeBundleRequest request = validateRequest(customizeBundleRequest);
-        CustomizedBundleResponse response = customizeProducts(request);
-        if (response.getStatus().equals(Status.SUCCESSFUL)) {
-            return ResponseEntity.accepted().body(response);
-        } else {
-            return ResponseEntity.status(HttpStatus.UNAVAILABLE_FOR_LEGAL_REASONS).body(response);
+    public BundleResponse suggestBundle(QuestionRequest request) {
+        Decisions current = decisions.get();
+        int segment = current.rules().segment(request);
+        Bundle bundle = current.suggestions().bundle(segment);
+        decisionMetrics.suggested(bundle);
+        decisionJournal.suggested(request.getAge(), request.getStudent(), request.getIncome(), bundle);
+        shadowEvaluator.suggested(request.getAge(), request.getStudent(), request.getIncome(), bundle);
+        return current.suggestions().lookup(segment);
+    }
+
+    /**
+     * The token /customize accepts in place of this question and its suggested bundle, or {@code null} when
+     * tokens are disabled.
+     */
+    public String suggestionToken(QuestionRequest request) {
+        if (!suggestionTokens.isEnabled()) {
+            return null;
         }
-    }
-
-    private BundleResponse suggestAdultBundle(QuestionRequest request) {
-        if (request.getStudent().equals(Student.YES)) {
-            return getBundleResponse(STUDENT);
-        } else {
-            int income = request.getIncome();
-            if (income == 0) {
-                return getBundleResponse(EMPTY);
-            } else if (income <= 12000) {
-                return getBundleResponse(CLASSIC);
-            } else if (income <= 40000) {
-                return getBundleResponse(CLASSIC_PLUS);
+        Decisions current = decisions.get();
+        int segment = current.rules().segment(request);
+        return suggestionTokens.issue(segment, current.suggestions().bundle(segment), request.getIncome());
+    }
+
+    public ResponseEntity<CustomizedBundleResponse> customizeBundle(CustomizeBundleRequest request) {
+        return customizeBundle(DecodedCustomizeRequest.of(request));
+    }
+
+    public ResponseEntity<CustomizedBundleResponse> customizeBundle(DecodedCustomizeRequest request) {
+        Decisions current = decisions.get();
+        return customizeBundle(current, current.rules().segment(request.age(), request.student(), request.income()), request);
+    }
+
+    /**
+     * Customizes the suggestion a token was issued for, in the segment the token carries.
+     */
+    public ResponseEntity<CustomizedBundleResponse> customizeSuggestion(String token, DecodedProductChanges changes) {
+        SuggestionToken suggestion = suggestionTokens.verify(token);
+        DecodedCustomizeRequest request = new DecodedCustomizeRequest(suggestion.bundle(), CustomerSegment.age(suggestion.segment()),
+                CustomerSegment.student(suggestion.segment()), suggestion.income(),
+                changes.removeProducts(), changes.addProducts(), changes.addProductsInRequestOrder());
+        return customizeBundle(decisions.get(), suggestion.segment(), request);
+    }
+
+    /**
+     * Applies the steps in order, each to the product set the previous one left, and answers every
+     * intermediate state with the status of the last. Each state is what /customize answers for the bundle
+     * with all changes so far, with added products in the order they were first added. Only the product set
+     * and that order are carried between steps, so a step is a mask update and a table lookup rather than
+     * a rebuild from the bundle's products.
+     */
+    public ResponseEntity<CustomizedStepsResponse> customizeSteps(DecodedCustomizeSteps request) {
+        Decisions current = decisions.get();
+        Bundle bundle = request.bundle();
+        int segment = current.rules().segment(request.age(), request.student(), request.income());
+        long bundleProducts = ProductMask.of(bundle);
+        long products = bundleProducts;
+        Product[] addOrder = new Product[PRODUCTS.length];
+        int addCount = 0;
+        long ordered = ProductMask.NONE;
+        boolean ascending = true;
+        List<CustomizedBundleResponse> steps = new ArrayList<>(request.steps().size());
+        ResponseEntity<CustomizedBundleResponse> response = null;
+        for (DecodedProductChanges step : request.steps()) {
+            long added = step.addProducts() & ~ordered;
+            List<Product> stepOrder = step.addProductsInRequestOrder();
+            for (int i = 0; added != ProductMask.NONE; i++) {
+                Product product = stepOrder == null ? PRODUCTS[Long.numberOfTrailingZeros(added)] : stepOrder.get(i);
+                if (ProductMask.contains(added, product)) {
+                    ascending &= addCount == 0 || product.ordinal() > addOrder[addCount - 1].ordinal();
+                    addOrder[addCount++] = product;
+                    added &= ~ProductMask.of(product);
+                }
             }
+            ordered |= step.addProducts();
+            products = (products | step.addProducts()) & ~step.removeProducts();
+            response = customizeBundle(current, segment, new DecodedCustomizeRequest(bundle, request.age(), request.student(), request.income(),
+                    bundleProducts & ~products, products & ~bundleProducts, ascending ? null : List.of(Arrays.copyOf(addOrder, addCount))));
+            steps.add(response.getBody());
         }
-        return getBundleResponse(GOLD);
+        return new ResponseEntity<>(CustomizedStepsResponse.builder().steps(List.copyOf(steps)).build(), HttpHeaders.EMPTY, response.getStatusCode());
     }
 
-    private BundleResponse getBundleResponse(Bundle bundle) {
-        return BundleResponse.builder()
-                .BundleName(bundle.getName())
-                .products(bundle.getProducts())
-                .build();
+    private ResponseEntity<CustomizedBundleResponse> customizeBundle(Decisions current, int segment, DecodedCustomizeRequest request) {
+        Bundle bundle = request.bundle();
+        long products = (ProductMask.of(bundle) | request.addProducts()) & ~request.removeProducts();
+        List<Product> addProducts = request.addProductsInRequestOrder();
+        ResponseEntity<CustomizedBundleResponse> response = addProducts == null || CustomizationTable.isCanonicalOrder(bundle, products, addProducts)
+                ? current.customizations().lookup(segment, bundle, products)
+                : customizeProducts(current.rules(), segment, bundle, products, addProducts);
+        decisionMetrics.customized(response);
+        violationEventLog.record(response.getBody());
+        decisionJournal.customized(request.age(), request.student(), request.income(), bundle,
+                request.removeProducts(), request.addProducts(), products, response.getBody());
+        shadowEvaluator.customized(request, response.getBody());
+        return response;
     }
 
-    private CustomizedBundleResponse getCustomizedBundleResponse(CustomizeBundleRequest request, List<Violations> violations, List<Product> products, List<Product> forbiddenProducts) {
-        return CustomizedBundleResponse.builder()
-                .bundleName(request.getBundle().getName())
-                .products(products)
-                .illegalProducts(forbiddenProducts)
-                .violations(violations)
-                .status(violations.size() == 0 ? Status.SUCCESSFUL : Status.ERROR)
-                .build();
-    }
-
-    private long checkCustomizedProductsHasAccount(List<Product> products) {
-        return products.stream()
-                .filter(Product::isAccount)
-                .count();
-    }
-
-    private CustomizedBundleResponse customizeProducts(CustomizeBundleRequest request) {
-        List<Product> products = new ArrayList<>(request.getBundle().getProducts());
-        products.addAll(request.getAddProducts());
-        products.removeAll(request.getRemoveProducts());
-        return validateCustomizedProducts(request, products.stream().distinct().toList());
+    /**
+     * The legal product set closest to the desired products and the most valuable bundle to customize into it.
+     */
+    public ResponseEntity<BestBundleResponse> bestBundle(DecodedBestBundleRequest request) {
+        Decisions current = decisions.get();
+        return current.bestBundles().lookup(current.rules().segment(request.age(), request.student(), request.income()), request.products());
     }
 
-    private CustomizedBundleResponse validateCustomizedProducts(CustomizeBundleRequest request, List<Product> products) {
-        QuestionRequest questionRequest = request.getQuestionRequest();
-        if (questionRequest.getAge().equals(UNDER_AGE)) {
-            return getCustomizedBundleResponseForJuniorSaver(request, products);
-        }
-        int income = questionRequest.getIncome();
-        long hasAccount = checkCustomizedProductsHasAccount(products);
-        List<Violations> violations = new ArrayList<>();
-        if (hasAccount == 0 || hasAccount > 1) {
-            violations.add(ACCOUNT_ISSUE);
-        }
-        if (questionRequest.getStudent().equals(Student.YES)) {
-            return getCustomizedBundleResponseForStudent(request, products, violations);
-        } else if (income == 0) {
-            return getCustomizedBundleResponseForIncomeZero(request, products, violations);
-        } else if (income <= 12000) {
-            return getCustomizedBundleResponseForIncomeUpTo12K(request, products, violations);
-        } else if (income <= 40000) {
-            return getCustomizedBundleResponseForIncomeUpTo40K(request, products, violations);
-        } else { //income > 40000
-            return getCustomizedBundleResponseForIncomeMoreThan40K(request, products, violations);
-        }
+    public EligibilityResponse eligibility(QuestionRequest request) {
+        Decisions current = decisions.get();
+        return current.eligibilities().lookup(current.rules().segment(request));
     }
 
-    private CustomizedBundleResponse getCustomizedBundleResponseForJuniorSaver(CustomizeBundleRequest request, List<Product> products) {
-        List<Product> forbiddenProducts = getForbiddenProducts(products, Violations.JUNIOR_ISSUE.getProducts());
-        return getCustomizedBundleResponseWithViolations(request, products, List.of(Violations.JUNIOR_ISSUE), forbiddenProducts);
+    private Decisions compile(RuleSet rules) {
+        CustomizationTable customizations = new CustomizationTable(fillMode, fillBudgetMillis,
+                (segment, bundle, products, addProducts) -> customizeProducts(rules, segment, bundle, products, addProducts));
+        BestBundleTable bestBundles = new BestBundleTable(rules,
+                (segment, products) -> customizations.lookup(segment, Bundle.EMPTY, products).getBody().getStatus() == Status.SUCCESSFUL);
+        return new Decisions(rules, new SuggestionTable(rules), customizations, bestBundles, new EligibilityTable(rules, customizations));
     }
 
-    private CustomizedBundleResponse getCustomizedBundleResponseForIncomeMoreThan40K(CustomizeBundleRequest request, List<Product> products, List<Violations> violations) {
-        List<Product> forbiddenProducts = getForbiddenProducts(products, ILLEGAL_PRODUCTS_MORE_THAN_40K.getProducts());
-        if (!forbiddenProducts.isEmpty()) {
-            violations.add(ILLEGAL_PRODUCTS_MORE_THAN_40K);
-        }
-        return getCustomizedBundleResponseWithViolations(request, products, violations, forbiddenProducts);
-    }
-
-    private CustomizedBundleResponse getCustomizedBundleResponseWithViolations(CustomizeBundleRequest request, List<Product> products, List<Violations> violations, List<Product> forbiddenProducts) {
-        if (violations.contains(ACCOUNT_ISSUE)) {
-            forbiddenProducts = Stream.concat(forbiddenProducts.stream(),
-                    products.stream().filter(Product::isAccount)).distinct().toList();
-        }
-        log.warn("Unable to customize due to {}", violations);
-        return getCustomizedBundleResponse(request, violations, products, forbiddenProducts);
-    }
-
-    private CustomizedBundleResponse getCustomizedBundleResponseForIncomeUpTo40K(CustomizeBundleRequest request, List<Product> products, List<Violations> violations) {
-        List<Product> forbiddenProducts = getForbiddenProducts(products, ILLEGAL_PRODUCTS_UP_TO_40K.getProducts());
-
-        if (!forbiddenProducts.isEmpty()) {
-            violations.add(Violations.ILLEGAL_PRODUCTS_UP_TO_40K);
-        }
-        return getCustomizedBundleResponseWithViolations(request, products, violations, forbiddenProducts);
-    }
-
-    private CustomizedBundleResponse getCustomizedBundleResponseForIncomeUpTo12K(CustomizeBundleRequest request, List<Product> products, List<Violations> violations) {
-        List<Product> forbiddenProducts = getForbiddenProducts(products, ILLEGAL_PRODUCTS_UP_TO_12K.getProducts());
-
-        if (!forbiddenProducts.isEmpty()) {
-            violations.add(ILLEGAL_PRODUCTS_UP_TO_12K);
-        }
-        return getCustomizedBundleResponseWithViolations(request, products, violations, forbiddenProducts);
+    private ResponseEntity<CustomizedBundleResponse> getCustomizedBundleResponse(Bundle bundle, List<Violations> violations, List<Product> products, List<Product> forbiddenProducts) {
+        CustomizedBundleResponse response = CustomizedBundleResponse.builder()
+                .bundleName(bundle.getName())
+                .products(products)
+                .illegalProducts(forbiddenProducts)
+                .violations(violations)
+                .status(violations.size() == 0 ? Status.SUCCESSFUL : Status.ERROR)
+                .build();
+        HttpStatus status = response.getStatus().equals(Status.SUCCESSFUL) ? HttpStatus.ACCEPTED : HttpStatus.UNAVAILABLE_FOR_LEGAL_REASONS;
+        return new ResponseEntity<>(response, HttpHeaders.EMPTY, status);
     }
 
-    private CustomizedBundleResponse getCustomizedBundleResponseForIncomeZero(CustomizeBundleRequest request, List<Product> products, List<Violations> violations) {
-        List<Product> forbiddenProducts = getForbiddenProducts(products, INCOME_ZERO.getProducts());
-        if (!forbiddenProducts.isEmpty()) {
-            violations.add(INCOME_ZERO);
+    private ResponseEntity<CustomizedBundleResponse> customizeProducts(RuleSet rules, int segment, Bundle bundle, long products, List<Product> addProducts) {
+        long forbiddenProducts = products & rules.forbiddenProducts(segment);
+        if (CustomerSegment.age(segment).equals(UNDER_AGE)) {
+            return getCustomizedBundleResponseWithViolations(bundle, products, addProducts, List.of(JUNIOR_ISSUE), forbiddenProducts);
         }
-        return getCustomizedBundleResponseWithViolations(request, products, violations, forbiddenProducts);
-    }
-
-    private CustomizedBundleResponse getCustomizedBundleResponseForStudent(CustomizeBundleRequest request, List<Product> products, List<Violations> violations) {
-        List<Product> forbiddenProducts = getForbiddenProducts(products, Violations.ILLEGAL_PRODUCTS_FOR_STUDENT.getProducts());
-        if (!forbiddenProducts.isEmpty()) {
-            violations.add(Violations.ILLEGAL_PRODUCTS_FOR_STUDENT);
+        Violations productViolation = rules.productViolation(segment);
+        boolean accountIssue = ProductMask.accountCount(products) != 1;
+        List<Violations> violations;
+        if (forbiddenProducts == ProductMask.NONE) {
+            violations = accountIssue ? List.of(ACCOUNT_ISSUE) : List.of();
+        } else {
+            violations = accountIssue ? List.of(ACCOUNT_ISSUE, productViolation) : List.of(productViolation);
         }
-        return getCustomizedBundleResponseWithViolations(request, products, violations, forbiddenProducts);
+        return getCustomizedBundleResponseWithViolations(bundle, products, addProducts, violations, forbiddenProducts);
     }
 
-    private List<Product> getForbiddenProducts(List<Product> source, List<Product> forbidden) {
-        if (CollectionUtils.containsAny(source, forbidden)) {
-            return source.stream()
-                    .filter(product -> forbidden.stream().anyMatch(product::equals))
-                    .toList();
+    private ResponseEntity<CustomizedBundleResponse> getCustomizedBundleResponseWithViolations(Bundle bundle, long products, List<Product> addProducts, List<Violations> violations, long forbiddenProducts) {
+        List<Product> productList = ProductMask.toList(products, bundle.getProducts(), addProducts);
+        List<Product> forbiddenProductList = ProductMask.toList(forbiddenProducts, productList);
+        if (violations.contains(ACCOUNT_ISSUE)) {
+            forbiddenProductList = ProductMask.toList(forbiddenProducts | (products & ProductMask.ACCOUNTS), forbiddenProductList, productList);
         }
-        return List.of();
+        return getCustomizedBundleResponse(bundle, violations, productList, forbiddenProductList);
     }
 
-    private CustomizeBundleRequest validateRequest(CustomizeBundleRequest customizeBundleRequest) {
-        List<Product> addProducts = customizeBundleRequest.getAddProducts() == null ? List.of() : customizeBundleRequest.getAddProducts();
-        List<Product> removeProducts = customizeBundleRequest.getRemoveProducts() == null ? List.of() : customizeBundleRequest.getRemoveProducts();
-        QuestionRequest questionRequest = customizeBundleRequest.getQuestionRequest();
-        Bundle bundle = customizeBundleRequest.getBundle();
-        return new CustomizeBundleRequest(bundle, questionRequest, removeProducts, addProducts);
+    private record Decisions(RuleSet rules, SuggestionTable suggestions, CustomizationTable customizations, BestBundleTable bestBundles,
+                             EligibilityTable eligibilities) {
     }
 }
@@ -0,0 +1,37 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.IncomeBand;
+import se.seb.bundleservice.model.Student;
+
+/**
+ * Dense index over every (Age, Student, IncomeBand) combination. Suggestions and customization
+ * rules only depend on these three, so the index is the row key of the precomputed decision tables.
+ */
+public final class CustomerSegment {
+
+    private static final Age[] AGES = Age.values();
+    private static final Student[] STUDENTS = Student.values();
+    private static final IncomeBand[] INCOME_BANDS = IncomeBand.values();
+
+    public static final int COUNT = AGES.length * STUDENTS.length * INCOME_BANDS.length;
+
+    private CustomerSegment() {
+    }
+
+    public static int of(Age age, Student student, IncomeBand incomeBand) {
+        return (age.ordinal() * STUDENTS.length + student.ordinal()) * INCOME_BANDS.length + incomeBand.ordinal();
+    }
+
+    public static Age age(int segment) {
+        return AGES[segment / (STUDENTS.length * INCOME_BANDS.length)];
+    }
+
+    public static Student student(int segment) {
+        return STUDENTS[segment / INCOME_BANDS.length % STUDENTS.length];
+    }
+
+    public static IncomeBand incomeBand(int segment) {
+        return INCOME_BANDS[segment % INCOME_BANDS.length];
+    }
+}
@@ -0,0 +1,111 @@
+package se.seb.bundleservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.Product;
+
+import java.util.List;
+
+/**
+ * Every /customize outcome, indexed by customer segment, bundle and resulting product mask.
+ * <p>
+ * Add and remove lists only matter through the mask they produce, so 24 segments x 6 bundles x 128 masks
+ * cover the whole input domain. Entries hold the complete {@link ResponseEntity} with the products listed
+ * in canonical order: the bundle's own products first, then added products by ordinal. Requests adding
+ * products in any other order are evaluated directly, since the response preserves their order.
+ */
+@Slf4j
+public final class CustomizationTable {
+
+    public enum FillMode {
+        EAGER, LAZY
+    }
+
+    @FunctionalInterface
+    interface Evaluator {
+        ResponseEntity<CustomizedBundleResponse> evaluate(int segment, Bundle bundle, long products, List<Product> addProducts);
+    }
+
+    private static final Bundle[] BUNDLES = Bundle.values();
+    private static final int MASKS = (int) ProductMask.ALL + 1;
+
+    // Approximate 64-bit JVM layouts with compressed oops: response entity, its body, and three small lists.
+    private static final long ENTRY_OVERHEAD_BYTES = 24 + 32 + 3 * 40;
+    private static final long REFERENCE_BYTES = 4;
+
+    private final Evaluator evaluator;
+    private final ResponseEntity<CustomizedBundleResponse>[] entries;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    CustomizationTable(FillMode fillMode, long fillBudgetMillis, Evaluator evaluator) {
+        this.evaluator = evaluator;
+        this.entries = new ResponseEntity[CustomerSegment.COUNT * BUNDLES.length * MASKS];
+        if (fillMode == FillMode.EAGER) {
+            long start = System.nanoTime();
+            for (int index = 0; index < entries.length; index++) {
+                entries[index] = evaluate(index);
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Customization table filled eagerly in {} ms: {} entries, ~{} KiB", elapsedMillis, entries.length, estimatedBytes() / 1024);
+            if (elapsedMillis > fillBudgetMillis) {
+                log.warn("Customization table fill took {} ms, over the {} ms startup budget; consider LAZY fill", elapsedMillis, fillBudgetMillis);
+            }
+        } else {
+            log.info("Customization table fills lazily: {} entries, ~{} KiB when complete", entries.length, estimatedBytes(entries.length) / 1024);
+        }
+    }
+
+    /**
+     * Whether {@code addProducts} list the products they contribute in canonical order, so the cached
+     * entry lists products exactly as a direct evaluation would.
+     */
+    static boolean isCanonicalOrder(Bundle bundle, long products, List<Product> addProducts) {
+        long added = products & ~ProductMask.of(bundle);
+        int lastOrdinal = -1;
+        for (int i = 0, size = addProducts.size(); i < size && added != 0; i++) {
+            Product product = addProducts.get(i);
+            if (ProductMask.contains(added, product)) {
+                if (product.ordinal() < lastOrdinal) {
+                    return false;
+                }
+                lastOrdinal = product.ordinal();
+                added &= ~ProductMask.of(product);
+            }
+        }
+        return true;
+    }
+
+    ResponseEntity<CustomizedBundleResponse> lookup(int segment, Bundle bundle, long products) {
+        int index = (segment * BUNDLES.length + bundle.ordinal()) * MASKS + (int) products;
+        ResponseEntity<CustomizedBundleResponse> entry = entries[index];
+        if (entry == null) {
+            // Entries are immutable, so a racing fill at worst evaluates the same entry twice.
+            entry = evaluate(index);
+            entries[index] = entry;
+        }
+        return entry;
+    }
+
+    public long estimatedBytes() {
+        long filled = 0;
+        for (ResponseEntity<CustomizedBundleResponse> entry : entries) {
+            if (entry != null) {
+                filled++;
+            }
+        }
+        return estimatedBytes(filled);
+    }
+
+    private long estimatedBytes(long filled) {
+        return 16 + entries.length * REFERENCE_BYTES + filled * ENTRY_OVERHEAD_BYTES;
+    }
+
+    private ResponseEntity<CustomizedBundleResponse> evaluate(int index) {
+        long products = index % MASKS;
+        Bundle bundle = BUNDLES[index / MASKS % BUNDLES.length];
+        int segment = index / MASKS / BUNDLES.length;
+        return evaluator.evaluate(segment, bundle, products, ProductMask.toList(products));
+    }
+}
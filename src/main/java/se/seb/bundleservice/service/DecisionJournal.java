@@ -0,0 +1,294 @@
+package se.seb.bundleservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.model.Violations;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only audit journal of every decision, written to memory-mapped segment files in
+ * {@code bundle.audit.directory}. Disabled when no directory is configured.
+ * <p>
+ * Each decision is a fixed 32-byte little-endian record of enum ordinals and product masks:
+ * <pre>
+ *  0 int   header: 0xDEC100 | decision ordinal + 1, written last
+ *  4 int   income
+ *  8 long  timestamp, epoch millis
+ * 16 byte  age, student, bundle, reserved
+ * 20 byte  remove, add, resulting and illegal product masks
+ * 24 short violation mask, then 6 reserved bytes
+ * </pre>
+ * A request thread reserves its slot with one {@code getAndAdd} on the journal position, fills it in and
+ * publishes it by writing the header with release semantics; it never waits for the disk. A background
+ * thread group-commits: every {@code bundle.audit.flush-millis} it forces the contiguous run of published
+ * records to disk and releases segments that are complete. Segments are {@code bundle.audit.segment-bytes}
+ * long and a restart continues in a new segment, so a record is never split or overwritten.
+ */
+@Slf4j
+@Component
+public class DecisionJournal {
+
+    static final int RECORD_BYTES = 32;
+
+    private static final int COMMITTED = 0xDEC100;
+    private static final JournalRecord.Decision[] DECISIONS = JournalRecord.Decision.values();
+    private static final Age[] AGES = Age.values();
+    private static final Student[] STUDENTS = Student.values();
+    private static final Bundle[] BUNDLES = Bundle.values();
+    private static final VarHandle HEADER = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long flushNanos;
+    private final AtomicLong reserved = new AtomicLong();
+    private final ConcurrentMap<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private volatile Segment current;
+    private volatile boolean running;
+    private long flushed;
+    private Thread flusher;
+
+    public DecisionJournal(@Value("${bundle.audit.directory:}") String directory,
+                           @Value("${bundle.audit.segment-bytes:67108864}") long segmentBytes,
+                           @Value("${bundle.audit.flush-millis:10}") long flushMillis) {
+        if (segmentBytes < RECORD_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("bundle.audit.segment-bytes must be between " + RECORD_BYTES + " and " + Integer.MAX_VALUE);
+        }
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_BYTES;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+    }
+
+    /**
+     * A journal that records nothing.
+     */
+    public static DecisionJournal disabled() {
+        return new DecisionJournal("", RECORD_BYTES, 0);
+    }
+
+    /**
+     * Reads every published record of the journal in {@code directory}, segment by segment.
+     */
+    public static void read(Path directory, Consumer<JournalRecord> consumer) throws IOException {
+        for (Path segment : segments(directory)) {
+            readSegment(segment, consumer);
+        }
+    }
+
+    /**
+     * The segment files of the journal in {@code directory}, oldest first.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.filter(DecisionJournal::isSegment).sorted().toList();
+        }
+    }
+
+    /**
+     * Reads the published records of one segment file, stopping at the first slot that was never published.
+     */
+    public static void readSegment(Path segment, Consumer<JournalRecord> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            for (int offset = 0; offset + RECORD_BYTES <= buffer.capacity(); offset += RECORD_BYTES) {
+                int header = buffer.getInt(offset);
+                if ((header & ~0xFF) != COMMITTED) {
+                    break;
+                }
+                consumer.accept(decode(buffer, offset, DECISIONS[(header & 0xFF) - 1]));
+            }
+        }
+    }
+
+    public void suggested(Age age, Student student, int income, Bundle bundle) {
+        if (directory != null) {
+            append(JournalRecord.Decision.SUGGEST, age, student, income, bundle,
+                    ProductMask.NONE, ProductMask.NONE, ProductMask.of(bundle), ProductMask.NONE, 0);
+        }
+    }
+
+    public void customized(Age age, Student student, int income, Bundle bundle, long removeProducts, long addProducts,
+                           long products, CustomizedBundleResponse response) {
+        if (directory != null) {
+            List<Violations> violations = response.getViolations();
+            int violationMask = 0;
+            for (int i = 0, size = violations.size(); i < size; i++) {
+                violationMask |= 1 << violations.get(i).ordinal();
+            }
+            append(JournalRecord.Decision.CUSTOMIZE, age, student, income, bundle,
+                    removeProducts, addProducts, products, ProductMask.of(response.getIllegalProducts()), violationMask);
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        long first = segments(directory).stream()
+                .mapToLong(file -> Long.parseLong(file.getFileName().toString().replace(SEGMENT_SUFFIX, "")) + 1)
+                .max()
+                .orElse(0);
+        reserved.set(first * segmentBytes);
+        flushed = first * segmentBytes;
+        MappedByteBuffer buffer = map(first);
+        segments.put(first, buffer);
+        current = new Segment(first, buffer);
+        running = true;
+        flusher = new Thread(this::flushContinuously, "decision-journal");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Recording decisions to {}, starting at segment {}", directory, first);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void append(JournalRecord.Decision decision, Age age, Student student, int income, Bundle bundle,
+                        long removeProducts, long addProducts, long products, long illegalProducts, int violationMask) {
+        long position = reserved.getAndAdd(RECORD_BYTES);
+        MappedByteBuffer buffer = segment(position / segmentBytes);
+        int offset = (int) (position % segmentBytes);
+        buffer.putInt(offset + 4, income);
+        buffer.putLong(offset + 8, System.currentTimeMillis());
+        buffer.put(offset + 16, (byte) age.ordinal());
+        buffer.put(offset + 17, (byte) student.ordinal());
+        buffer.put(offset + 18, (byte) bundle.ordinal());
+        buffer.put(offset + 20, (byte) removeProducts);
+        buffer.put(offset + 21, (byte) addProducts);
+        buffer.put(offset + 22, (byte) products);
+        buffer.put(offset + 23, (byte) illegalProducts);
+        buffer.putShort(offset + 24, (short) violationMask);
+        HEADER.setRelease(buffer, offset, COMMITTED | decision.ordinal() + 1);
+    }
+
+    private MappedByteBuffer segment(long index) {
+        Segment segment = current;
+        if (segment.index() == index) {
+            return segment.buffer();
+        }
+        MappedByteBuffer buffer = segments.get(index);
+        return buffer != null ? buffer : rollOver(index);
+    }
+
+    /**
+     * Maps segment {@code index}, once, for the first writer that reserves a slot in it.
+     */
+    private synchronized MappedByteBuffer rollOver(long index) {
+        MappedByteBuffer buffer = segments.get(index);
+        if (buffer == null) {
+            try {
+                buffer = map(index);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to create journal segment " + index + " in " + directory, e);
+            }
+            segments.put(index, buffer);
+            if (index > current.index()) {
+                current = new Segment(index, buffer);
+            }
+        }
+        return buffer;
+    }
+
+    private MappedByteBuffer map(long index) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX)), CREATE_NEW, READ, WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private void flushContinuously() {
+        while (running) {
+            LockSupport.parkNanos(flushNanos);
+            flush();
+        }
+        flush();
+    }
+
+    /**
+     * Forces the published records after the last flush to disk, up to the first slot that is reserved but
+     * not yet published, and drops segments whose every slot has been flushed.
+     */
+    private void flush() {
+        try {
+            long end = reserved.get();
+            long position = flushed;
+            while (position < end) {
+                long index = position / segmentBytes;
+                MappedByteBuffer buffer = segments.get(index);
+                if (buffer == null) {
+                    break;
+                }
+                int start = (int) (position % segmentBytes);
+                int limit = (int) Math.min(end - index * segmentBytes, segmentBytes);
+                int offset = start;
+                while (offset < limit && (int) HEADER.getAcquire(buffer, offset) != 0) {
+                    offset += RECORD_BYTES;
+                }
+                if (offset > start) {
+                    buffer.force(start, offset - start);
+                }
+                position = index * segmentBytes + offset;
+                if (offset < segmentBytes) {
+                    break;
+                }
+                segments.remove(index);
+            }
+            flushed = position;
+        } catch (UncheckedIOException e) {
+            log.error("Unable to flush decision journal in {}", directory, e);
+        }
+    }
+
+    private static JournalRecord decode(MappedByteBuffer buffer, int offset, JournalRecord.Decision decision) {
+        return new JournalRecord(buffer.getLong(offset + 8), decision,
+                AGES[buffer.get(offset + 16)], STUDENTS[buffer.get(offset + 17)], buffer.getInt(offset + 4), BUNDLES[buffer.get(offset + 18)],
+                buffer.get(offset + 20), buffer.get(offset + 21), buffer.get(offset + 22), buffer.get(offset + 23),
+                Short.toUnsignedInt(buffer.getShort(offset + 24)));
+    }
+
+    private static boolean isSegment(Path file) {
+        return file.getFileName().toString().endsWith(SEGMENT_SUFFIX);
+    }
+
+    private record Segment(long index, MappedByteBuffer buffer) {
+    }
+}
@@ -0,0 +1,70 @@
+package se.seb.bundleservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.Violations;
+
+import java.util.List;
+
+/**
+ * Counters for the decisions made by {@link BundleService}.
+ * <p>
+ * Every counter is registered up front and looked up by ordinal, so recording is a single striped-adder
+ * increment with no registry lookup, tag allocation or locking on the request path.
+ */
+@Component
+public class DecisionMetrics {
+
+    private static final Bundle[] BUNDLES = Bundle.values();
+    private static final Violations[] VIOLATIONS = Violations.values();
+
+    private final Counter[] suggestions = new Counter[BUNDLES.length];
+    private final Counter[] violations = new Counter[VIOLATIONS.length];
+    private final Counter accepted;
+    private final Counter rejected;
+
+    public DecisionMetrics(MeterRegistry meterRegistry) {
+        for (Bundle bundle : BUNDLES) {
+            suggestions[bundle.ordinal()] = Counter.builder("bundle.suggestions")
+                    .description("Bundles suggested")
+                    .tag("bundle", bundle.name())
+                    .register(meterRegistry);
+        }
+        for (Violations violation : VIOLATIONS) {
+            violations[violation.ordinal()] = Counter.builder("bundle.customize.violations")
+                    .description("Violations found when customizing a bundle")
+                    .tag("violation", violation.name())
+                    .register(meterRegistry);
+        }
+        accepted = customizations(meterRegistry, HttpStatus.ACCEPTED);
+        rejected = customizations(meterRegistry, HttpStatus.UNAVAILABLE_FOR_LEGAL_REASONS);
+    }
+
+    void suggested(Bundle bundle) {
+        suggestions[bundle.ordinal()].increment();
+    }
+
+    void customized(ResponseEntity<CustomizedBundleResponse> response) {
+        List<Violations> found = response.getBody().getViolations();
+        if (found.isEmpty()) {
+            accepted.increment();
+            return;
+        }
+        rejected.increment();
+        for (int i = 0, size = found.size(); i < size; i++) {
+            violations[found.get(i).ordinal()].increment();
+        }
+    }
+
+    private static Counter customizations(MeterRegistry meterRegistry, HttpStatus status) {
+        return Counter.builder("bundle.customizations")
+                .description("Customization decisions by response status")
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry);
+    }
+}
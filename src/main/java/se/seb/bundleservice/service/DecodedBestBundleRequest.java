@@ -0,0 +1,21 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.BestBundleRequest;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+
+import java.util.List;
+
+/**
+ * A {@link BestBundleRequest} reduced to what the answer depends on, with the desired products as a
+ * {@link ProductMask}.
+ */
+public record DecodedBestBundleRequest(Age age, Student student, int income, long products) {
+
+    public static DecodedBestBundleRequest of(BestBundleRequest request) {
+        QuestionRequest questionRequest = request.getQuestionRequest();
+        return new DecodedBestBundleRequest(questionRequest.getAge(), questionRequest.getStudent(), questionRequest.getIncome(),
+                ProductMask.of(request.getProducts() == null ? List.of() : request.getProducts()));
+    }
+}
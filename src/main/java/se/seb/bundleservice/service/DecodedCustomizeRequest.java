@@ -0,0 +1,29 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.Product;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+
+import java.util.List;
+
+/**
+ * A {@link CustomizeBundleRequest} reduced to what the decision depends on, with the product lists as
+ * {@link ProductMask}s. Responses list added products in request order, so
+ * {@code addProductsInRequestOrder} keeps the distinct added products only when their order is not
+ * already ascending; otherwise it is {@code null}.
+ */
+public record DecodedCustomizeRequest(Bundle bundle, Age age, Student student, int income,
+                                      long removeProducts, long addProducts, List<Product> addProductsInRequestOrder) {
+
+    public static DecodedCustomizeRequest of(CustomizeBundleRequest request) {
+        List<Product> addProducts = request.getAddProducts() == null ? List.of() : request.getAddProducts();
+        List<Product> removeProducts = request.getRemoveProducts() == null ? List.of() : request.getRemoveProducts();
+        QuestionRequest questionRequest = request.getQuestionRequest();
+        long addMask = ProductMask.of(addProducts);
+        return new DecodedCustomizeRequest(request.getBundle(), questionRequest.getAge(), questionRequest.getStudent(), questionRequest.getIncome(),
+                ProductMask.of(removeProducts), addMask, ProductMask.isAscending(addProducts) ? null : ProductMask.toList(addMask, addProducts));
+    }
+}
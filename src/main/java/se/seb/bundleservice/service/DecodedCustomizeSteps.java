@@ -0,0 +1,24 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.CustomizeStepsRequest;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+
+import java.util.List;
+
+/**
+ * A {@link CustomizeStepsRequest} reduced to what the decisions depend on, with every step's product
+ * lists as {@link ProductMask}s.
+ */
+public record DecodedCustomizeSteps(Bundle bundle, Age age, Student student, int income, List<DecodedProductChanges> steps) {
+
+    public static DecodedCustomizeSteps of(CustomizeStepsRequest request) {
+        QuestionRequest questionRequest = request.getQuestionRequest();
+        List<DecodedProductChanges> steps = request.getSteps().stream()
+                .map(DecodedProductChanges::of)
+                .toList();
+        return new DecodedCustomizeSteps(request.getBundle(), questionRequest.getAge(), questionRequest.getStudent(), questionRequest.getIncome(), steps);
+    }
+}
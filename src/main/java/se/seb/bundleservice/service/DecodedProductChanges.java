@@ -0,0 +1,29 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.CustomizeStep;
+import se.seb.bundleservice.model.CustomizeSuggestionRequest;
+import se.seb.bundleservice.model.Product;
+
+import java.util.List;
+
+/**
+ * A {@link CustomizeSuggestionRequest} or {@link CustomizeStep} with the product lists as
+ * {@link ProductMask}s, keeping the added products in request order like {@link DecodedCustomizeRequest}.
+ */
+public record DecodedProductChanges(long removeProducts, long addProducts, List<Product> addProductsInRequestOrder) {
+
+    public static DecodedProductChanges of(CustomizeSuggestionRequest request) {
+        return of(request.getRemoveProducts(), request.getAddProducts());
+    }
+
+    public static DecodedProductChanges of(CustomizeStep step) {
+        return of(step.getRemoveProducts(), step.getAddProducts());
+    }
+
+    private static DecodedProductChanges of(List<Product> removeProducts, List<Product> addProducts) {
+        List<Product> added = addProducts == null ? List.of() : addProducts;
+        long addMask = ProductMask.of(added);
+        return new DecodedProductChanges(ProductMask.of(removeProducts == null ? List.of() : removeProducts), addMask,
+                ProductMask.isAscending(added) ? null : ProductMask.toList(addMask, added));
+    }
+}
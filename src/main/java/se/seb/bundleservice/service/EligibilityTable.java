@@ -0,0 +1,68 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.BundleEligibility;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.EligibilityResponse;
+import se.seb.bundleservice.model.Product;
+import se.seb.bundleservice.model.ProductEligibility;
+import se.seb.bundleservice.model.Status;
+import se.seb.bundleservice.model.Violations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static se.seb.bundleservice.model.Age.UNDER_AGE;
+import static se.seb.bundleservice.model.Violations.JUNIOR_ISSUE;
+
+/**
+ * Which bundles and products every {@link CustomerSegment} may choose, built once per {@link RuleSet}.
+ * <p>
+ * A bundle is allowed when /customize accepts it unchanged, with the same violations and illegal products
+ * otherwise. A product is allowed unless the segment's forbidden mask contains it; under-age customers
+ * cannot customize, so none of their products are. Account rules depend on the whole product set and are
+ * left to /customize.
+ */
+final class EligibilityTable {
+
+    private static final Bundle[] BUNDLES = Bundle.values();
+    private static final Product[] PRODUCTS = Product.values();
+
+    private final EligibilityResponse[] responses = new EligibilityResponse[CustomerSegment.COUNT];
+
+    EligibilityTable(RuleSet rules, CustomizationTable customizations) {
+        for (int segment = 0; segment < CustomerSegment.COUNT; segment++) {
+            List<BundleEligibility> bundles = new ArrayList<>(BUNDLES.length);
+            for (Bundle bundle : BUNDLES) {
+                CustomizedBundleResponse customized = customizations.lookup(segment, bundle, ProductMask.of(bundle)).getBody();
+                bundles.add(BundleEligibility.builder()
+                        .bundle(bundle)
+                        .bundleName(bundle.getName())
+                        .allowed(customized.getStatus() == Status.SUCCESSFUL)
+                        .violations(customized.getViolations())
+                        .illegalProducts(customized.getIllegalProducts())
+                        .build());
+            }
+            boolean underAge = CustomerSegment.age(segment) == UNDER_AGE;
+            long forbidden = underAge ? ProductMask.ALL : rules.forbiddenProducts(segment);
+            Violations violation = underAge ? JUNIOR_ISSUE : rules.productViolation(segment);
+            List<ProductEligibility> products = new ArrayList<>(PRODUCTS.length);
+            for (Product product : PRODUCTS) {
+                boolean allowed = !ProductMask.contains(forbidden, product);
+                products.add(ProductEligibility.builder()
+                        .product(product)
+                        .allowed(allowed)
+                        .violations(allowed ? List.of() : List.of(violation))
+                        .build());
+            }
+            responses[segment] = EligibilityResponse.builder()
+                    .bundles(List.copyOf(bundles))
+                    .products(List.copyOf(products))
+                    .build();
+        }
+    }
+
+    EligibilityResponse lookup(int segment) {
+        return responses[segment];
+    }
+}
@@ -0,0 +1,19 @@
+package se.seb.bundleservice.service;
+
+/**
+ * A suggestion token that is malformed, forged or expired. Details come from a small, fixed set of
+ * messages and never echo the token. Rejections are expected traffic, so no stack trace is captured.
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidTokenException(String detail) {
+        super(detail);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
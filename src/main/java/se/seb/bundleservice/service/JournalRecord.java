@@ -0,0 +1,33 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.model.Violations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One decision read back from a {@link DecisionJournal}. Product sets are {@link ProductMask}s and
+ * {@code violationMask} has one bit per {@link Violations} ordinal. For suggestions {@code bundle} is the
+ * suggested bundle and {@code products} its products; for customizations it is the bundle being
+ * customized and {@code products} the result. Violations read back in declaration order.
+ */
+public record JournalRecord(long timestampMillis, Decision decision, Age age, Student student, int income, Bundle bundle,
+                            long removeProducts, long addProducts, long products, long illegalProducts, int violationMask) {
+
+    private static final Violations[] VIOLATIONS = Violations.values();
+
+    public enum Decision {
+        SUGGEST, CUSTOMIZE
+    }
+
+    public List<Violations> violations() {
+        List<Violations> violations = new ArrayList<>(Integer.bitCount(violationMask));
+        for (int remaining = violationMask; remaining != 0; remaining &= remaining - 1) {
+            violations.add(VIOLATIONS[Integer.numberOfTrailingZeros(remaining)]);
+        }
+        return violations;
+    }
+}
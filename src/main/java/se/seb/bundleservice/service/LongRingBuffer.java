@@ -0,0 +1,48 @@
+package se.seb.bundleservice.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link RingBuffer} for primitive longs, so producers hand over packed values without allocating. Zero
+ * marks an empty slot and cannot be offered.
+ */
+final class LongRingBuffer {
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    LongRingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    boolean offer(long element) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.lazySet((int) sequence & mask, element);
+        return true;
+    }
+
+    /**
+     * Takes the oldest element, or returns zero when the buffer is empty or the next element is still
+     * being published. Only one thread may poll.
+     */
+    long poll() {
+        int index = (int) head & mask;
+        long element = slots.get(index);
+        if (element != 0) {
+            slots.lazySet(index, 0);
+            head = head + 1;
+        }
+        return element;
+    }
+}
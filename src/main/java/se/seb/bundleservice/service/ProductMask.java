@@ -0,0 +1,138 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.Product;
+import se.seb.bundleservice.model.Violations;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Packs a set of {@link Product}s into the bits of a long, one bit per ordinal.
+ * Bundle and violation product lists are compiled to masks once, so set operations on the
+ * customize path are plain bitwise arithmetic.
+ */
+public final class ProductMask {
+
+    public static final long NONE = 0L;
+
+    private static final Product[] PRODUCTS = Product.values();
+    public static final long ALL = (1L << PRODUCTS.length) - 1;
+    public static final long ACCOUNTS = accounts();
+
+    private static final long[] BUNDLE_MASKS = new long[Bundle.values().length];
+    private static final long[] VIOLATION_MASKS = new long[Violations.values().length];
+
+    static {
+        for (Bundle bundle : Bundle.values()) {
+            BUNDLE_MASKS[bundle.ordinal()] = of(bundle.getProducts());
+        }
+        for (Violations violation : Violations.values()) {
+            VIOLATION_MASKS[violation.ordinal()] = of(violation.getProducts());
+        }
+    }
+
+    private ProductMask() {
+    }
+
+    public static long of(Product product) {
+        return 1L << product.ordinal();
+    }
+
+    public static long of(List<Product> products) {
+        long mask = NONE;
+        for (int i = 0, size = products.size(); i < size; i++) {
+            mask |= of(products.get(i));
+        }
+        return mask;
+    }
+
+    public static long of(Bundle bundle) {
+        return BUNDLE_MASKS[bundle.ordinal()];
+    }
+
+    public static long of(Violations violation) {
+        return VIOLATION_MASKS[violation.ordinal()];
+    }
+
+    public static boolean contains(long mask, Product product) {
+        return (mask & of(product)) != 0;
+    }
+
+    /**
+     * Whether each product first appears in {@code products} after every product with a lower ordinal,
+     * so listing the mask in ordinal order keeps the order of the list.
+     */
+    public static boolean isAscending(List<Product> products) {
+        long seen = NONE;
+        int lastOrdinal = -1;
+        for (int i = 0, size = products.size(); i < size; i++) {
+            Product product = products.get(i);
+            if (!contains(seen, product)) {
+                if (product.ordinal() < lastOrdinal) {
+                    return false;
+                }
+                lastOrdinal = product.ordinal();
+                seen |= of(product);
+            }
+        }
+        return true;
+    }
+
+    public static int accountCount(long mask) {
+        return Long.bitCount(mask & ACCOUNTS);
+    }
+
+    /**
+     * Products of the mask in ordinal order.
+     */
+    public static List<Product> toList(long mask) {
+        Product[] products = new Product[Long.bitCount(mask)];
+        int size = 0;
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            products[size++] = PRODUCTS[Long.numberOfTrailingZeros(remaining)];
+        }
+        return List.of(products);
+    }
+
+    /**
+     * Products of the mask in the order they first appear in {@code order}.
+     */
+    public static List<Product> toList(long mask, List<Product> order) {
+        return toList(mask, order, List.of());
+    }
+
+    /**
+     * Products of the mask in the order they first appear in {@code first}, followed by {@code then}.
+     */
+    public static List<Product> toList(long mask, List<Product> first, List<Product> then) {
+        Product[] products = new Product[Long.bitCount(mask)];
+        long pending = mask;
+        int size = 0;
+        for (int i = 0, count = first.size(); i < count && pending != 0; i++) {
+            long bit = of(first.get(i));
+            if ((pending & bit) != 0) {
+                products[size++] = first.get(i);
+                pending &= ~bit;
+            }
+        }
+        for (int i = 0, count = then.size(); i < count && pending != 0; i++) {
+            long bit = of(then.get(i));
+            if ((pending & bit) != 0) {
+                products[size++] = then.get(i);
+                pending &= ~bit;
+            }
+        }
+        return List.of(size == products.length ? products : Arrays.copyOf(products, size));
+    }
+
+    private static long accounts() {
+        long mask = NONE;
+        for (Product product : PRODUCTS) {
+            if (product.isAccount()) {
+                mask |= of(product);
+            }
+        }
+        return mask;
+    }
+}
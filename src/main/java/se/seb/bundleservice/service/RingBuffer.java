@@ -0,0 +1,52 @@
+package se.seb.bundleservice.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, single-consumer queue. Producers claim a slot with a CAS and never wait: when the
+ * buffer is full {@link #offer} returns {@code false} and the caller decides what to drop.
+ */
+final class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    RingBuffer(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    boolean offer(E element) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.lazySet((int) sequence & mask, element);
+        return true;
+    }
+
+    /**
+     * Takes the oldest element, or returns {@code null} when the buffer is empty or the next element is
+     * still being published. Only one thread may poll.
+     */
+    E poll() {
+        int index = (int) head & mask;
+        E element = slots.get(index);
+        if (element != null) {
+            slots.lazySet(index, null);
+            head = head + 1;
+        }
+        return element;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
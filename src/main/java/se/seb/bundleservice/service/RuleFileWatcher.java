@@ -0,0 +1,98 @@
+package se.seb.bundleservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import se.seb.bundleservice.model.RuleDefinition;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Loads {@code bundle.rules.file} (YAML or JSON) into {@link BundleService} at startup and again whenever
+ * the file changes. A file that fails to load at startup fails the application; later failures are logged
+ * and the rules already in use stay in place.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "bundle.rules", name = "file")
+public class RuleFileWatcher {
+
+    // Editors often save in several writes, so wait for the file to settle before reading it.
+    private static final long SETTLE_MILLIS = 200;
+
+    private static final ObjectMapper RULE_MAPPER = new ObjectMapper(new YAMLFactory());
+
+    private final BundleService bundleService;
+    private final Path file;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public RuleFileWatcher(BundleService bundleService, @Value("${bundle.rules.file}") String file) {
+        this.bundleService = bundleService;
+        this.file = Path.of(file).toAbsolutePath();
+    }
+
+    public static RuleSet load(Path file) throws IOException {
+        return RuleSet.compile(RULE_MAPPER.readValue(file.toFile(), RuleDefinition.class));
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        bundleService.apply(load(file));
+        log.info("Loaded bundle rules from {}", file);
+        watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+        watcher = new Thread(this::watch, "rule-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        watchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                boolean changed = false;
+                for (WatchKey key = watchService.take(); key != null; key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= file.getFileName().equals(event.context());
+                    }
+                    key.reset();
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Stopped watching {}", file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reload() {
+        try {
+            bundleService.apply(load(file));
+            log.info("Reloaded bundle rules from {}", file);
+        } catch (IOException | RuntimeException e) {
+            log.error("Keeping current bundle rules, unable to load {}", file, e);
+        }
+    }
+}
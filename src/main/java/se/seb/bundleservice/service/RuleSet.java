@@ -0,0 +1,152 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.IncomeBand;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.RuleDefinition;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.model.Violations;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_FOR_STUDENT;
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_MORE_THAN_40K;
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_UP_TO_12K;
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_UP_TO_40K;
+import static se.seb.bundleservice.model.Violations.INCOME_ZERO;
+import static se.seb.bundleservice.model.Violations.JUNIOR_ISSUE;
+
+/**
+ * A {@link RuleDefinition} compiled into per-segment arrays of suggested bundle, product violation and
+ * forbidden product mask. Instances are immutable, so a rule set can be swapped in while requests are
+ * being evaluated against the previous one.
+ */
+public final class RuleSet {
+
+    private static final IncomeBand[] INCOME_BANDS = IncomeBand.values();
+    private static final Violations[] INCOME_VIOLATIONS = {INCOME_ZERO, ILLEGAL_PRODUCTS_UP_TO_12K, ILLEGAL_PRODUCTS_UP_TO_40K, ILLEGAL_PRODUCTS_MORE_THAN_40K};
+
+    private final int[] maxIncomes = new int[INCOME_BANDS.length - 1];
+    private final Bundle[] suggestions = new Bundle[CustomerSegment.COUNT];
+    private final Violations[] productViolations = new Violations[CustomerSegment.COUNT];
+    private final long[] forbiddenProducts = new long[CustomerSegment.COUNT];
+
+    private RuleSet(RuleDefinition definition) {
+        RuleDefinition.Rule underAge = require(definition.getUnderAge(), "underAge");
+        RuleDefinition.Rule student = require(definition.getStudent(), "student");
+        List<RuleDefinition.Rule> incomeBands = require(definition.getIncomeBands(), "incomeBands");
+        if (incomeBands.size() != INCOME_BANDS.length) {
+            throw new IllegalArgumentException("incomeBands must list " + INCOME_BANDS.length + " bands, got " + incomeBands.size());
+        }
+        for (int band = 0; band < INCOME_BANDS.length; band++) {
+            require(incomeBands.get(band), "incomeBands[" + band + "]");
+        }
+        for (int band = 0; band < maxIncomes.length; band++) {
+            Integer maxIncome = require(incomeBands.get(band).getMaxIncome(), "incomeBands[" + band + "].maxIncome");
+            if (maxIncome < 0 || maxIncome == Integer.MAX_VALUE || band > 0 && maxIncome <= maxIncomes[band - 1]) {
+                throw new IllegalArgumentException("incomeBands[" + band + "].maxIncome must be non-negative, ascending and below "
+                        + Integer.MAX_VALUE + ", got " + maxIncome);
+            }
+            maxIncomes[band] = maxIncome;
+        }
+        if (incomeBands.get(maxIncomes.length).getMaxIncome() != null) {
+            throw new IllegalArgumentException("The last income band must not have a maxIncome");
+        }
+        for (int segment = 0; segment < CustomerSegment.COUNT; segment++) {
+            RuleDefinition.Rule rule;
+            Violations violation;
+            if (CustomerSegment.age(segment) == Age.UNDER_AGE) {
+                rule = underAge;
+                violation = JUNIOR_ISSUE;
+            } else if (CustomerSegment.student(segment) == Student.YES) {
+                rule = student;
+                violation = ILLEGAL_PRODUCTS_FOR_STUDENT;
+            } else {
+                int band = CustomerSegment.incomeBand(segment).ordinal();
+                rule = incomeBands.get(band);
+                violation = INCOME_VIOLATIONS[band];
+            }
+            suggestions[segment] = require(rule.getBundle(), violation + " bundle");
+            productViolations[segment] = violation;
+            forbiddenProducts[segment] = ProductMask.of(requireEntries(rule.getForbiddenProducts(), violation + " forbiddenProducts"));
+        }
+    }
+
+    public static RuleSet compile(RuleDefinition definition) {
+        return new RuleSet(definition);
+    }
+
+    /**
+     * The rules the service started out with: income limits of 0, 12000 and 40000 and the forbidden
+     * products listed on {@link Violations}.
+     */
+    public static RuleSet defaults() {
+        return compile(new RuleDefinition(
+                rule(null, Bundle.JUNIOR_SAVER, JUNIOR_ISSUE),
+                rule(null, Bundle.STUDENT, ILLEGAL_PRODUCTS_FOR_STUDENT),
+                List.of(rule(0, Bundle.EMPTY, INCOME_ZERO),
+                        rule(12000, Bundle.CLASSIC, ILLEGAL_PRODUCTS_UP_TO_12K),
+                        rule(40000, Bundle.CLASSIC_PLUS, ILLEGAL_PRODUCTS_UP_TO_40K),
+                        rule(null, Bundle.GOLD, ILLEGAL_PRODUCTS_MORE_THAN_40K))));
+    }
+
+    public int segment(QuestionRequest request) {
+        return segment(request.getAge(), request.getStudent(), request.getIncome());
+    }
+
+    public int segment(Age age, Student student, int income) {
+        return CustomerSegment.of(age, student, incomeBand(income));
+    }
+
+    public IncomeBand incomeBand(int income) {
+        for (int band = 0; band < maxIncomes.length; band++) {
+            if (income <= maxIncomes[band]) {
+                return INCOME_BANDS[band];
+            }
+        }
+        return INCOME_BANDS[maxIncomes.length];
+    }
+
+    /**
+     * One income inside each band: the band's upper limit, and one more than the last limit for the open
+     * top band.
+     */
+    public int[] incomeSamples() {
+        int[] samples = Arrays.copyOf(maxIncomes, INCOME_BANDS.length);
+        samples[maxIncomes.length] = maxIncomes[maxIncomes.length - 1] + 1;
+        return samples;
+    }
+
+    public Bundle suggestion(int segment) {
+        return suggestions[segment];
+    }
+
+    public Violations productViolation(int segment) {
+        return productViolations[segment];
+    }
+
+    public long forbiddenProducts(int segment) {
+        return forbiddenProducts[segment];
+    }
+
+    private static RuleDefinition.Rule rule(Integer maxIncome, Bundle bundle, Violations violation) {
+        return new RuleDefinition.Rule(maxIncome, bundle, violation.getProducts());
+    }
+
+    private static <T> T require(T value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is missing");
+        }
+        return value;
+    }
+
+    private static <T> List<T> requireEntries(List<T> values, String name) {
+        require(values, name);
+        for (int i = 0, size = values.size(); i < size; i++) {
+            require(values.get(i), name + "[" + i + "]");
+        }
+        return values;
+    }
+}
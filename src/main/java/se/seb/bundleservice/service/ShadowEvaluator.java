@@ -0,0 +1,237 @@
+package se.seb.bundleservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.model.Violations;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluates live decisions against the candidate rules in {@code bundle.shadow.rules-file} off the request
+ * thread, counting and sampling the decisions where the two disagree. Disabled when no file is configured.
+ * <p>
+ * Request threads pack the question, the request's product masks and the live outcome into a single long
+ * and offer it to a {@link LongRingBuffer}; they never allocate, wait or evaluate the candidate. When the
+ * buffer is full the decision is dropped and counted in {@code bundle.shadow.dropped}. A
+ * {@link WindowedDrainer} re-evaluates each decision under the candidate rules and compares the suggested
+ * bundle, or the set of violations, which also decides the status. Comparisons are counted in
+ * {@code bundle.shadow.evaluations} and disagreements in {@code bundle.shadow.mismatches}; the first few of
+ * each window are logged. Decisions the candidate rules fail to evaluate are counted in
+ * {@code bundle.shadow.failures}.
+ */
+@Slf4j
+@Component
+public class ShadowEvaluator {
+
+    private static final Age[] AGES = Age.values();
+    private static final Student[] STUDENTS = Student.values();
+    private static final Bundle[] BUNDLES = Bundle.values();
+    private static final Violations[] VIOLATIONS = Violations.values();
+
+    // Bits of a packed decision. PRESENT keeps every packed value non-zero.
+    private static final long PRESENT = 1L << 63;
+    private static final long CUSTOMIZE = 1L << 62;
+    private static final int AGE_SHIFT = 32;
+    private static final int STUDENT_SHIFT = 34;
+    private static final int BUNDLE_SHIFT = 35;
+    private static final int REMOVE_SHIFT = 38;
+    private static final int ADD_SHIFT = 45;
+    private static final int VIOLATIONS_SHIFT = 52;
+    private static final long PRODUCTS = 0x7F;
+
+    private final Path rulesFile;
+    private final LongRingBuffer decisions;
+    private final WindowedDrainer drainer;
+    private final MeterRegistry meterRegistry;
+    private BundleService candidate;
+    private Counter suggestions;
+    private Counter customizations;
+    private Counter suggestionMismatches;
+    private Counter customizationMismatches;
+    private Counter dropped;
+    private Counter failures;
+
+    public ShadowEvaluator(@Value("${bundle.shadow.rules-file:}") String rulesFile,
+                           @Value("${bundle.shadow.capacity:8192}") int capacity,
+                           @Value("${bundle.shadow.window-seconds:10}") long windowSeconds,
+                           @Value("${bundle.shadow.samples-per-window:5}") int samplesPerWindow,
+                           MeterRegistry meterRegistry) {
+        this.rulesFile = rulesFile.isBlank() ? null : Path.of(rulesFile);
+        this.decisions = this.rulesFile == null ? null : new LongRingBuffer(capacity);
+        this.drainer = new WindowedDrainer("shadow-evaluator", windowSeconds, samplesPerWindow, this::evaluateNext, this::endWindow);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * An evaluator that shadows nothing.
+     */
+    public static ShadowEvaluator disabled() {
+        return new ShadowEvaluator("", 2, 1, 0, new SimpleMeterRegistry());
+    }
+
+    public void suggested(Age age, Student student, int income, Bundle bundle) {
+        if (decisions != null) {
+            offer(pack(age, student, income, bundle));
+        }
+    }
+
+    public void customized(DecodedCustomizeRequest request, CustomizedBundleResponse response) {
+        if (decisions != null) {
+            offer(pack(request.age(), request.student(), request.income(), request.bundle())
+                    | CUSTOMIZE
+                    | request.removeProducts() << REMOVE_SHIFT
+                    | request.addProducts() << ADD_SHIFT
+                    | (long) violationMask(response.getViolations()) << VIOLATIONS_SHIFT);
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (rulesFile == null) {
+            return;
+        }
+        candidate = BundleService.detached(CustomizationTable.FillMode.EAGER, Long.MAX_VALUE, RuleFileWatcher.load(rulesFile));
+        suggestions = counter("bundle.shadow.evaluations", "Live decisions evaluated under the candidate rules", "suggest");
+        customizations = counter("bundle.shadow.evaluations", "Live decisions evaluated under the candidate rules", "customize");
+        suggestionMismatches = counter("bundle.shadow.mismatches", "Live decisions the candidate rules decide differently", "suggest");
+        customizationMismatches = counter("bundle.shadow.mismatches", "Live decisions the candidate rules decide differently", "customize");
+        dropped = Counter.builder("bundle.shadow.dropped")
+                .description("Live decisions not shadowed because the queue was full")
+                .register(meterRegistry);
+        failures = Counter.builder("bundle.shadow.failures")
+                .description("Live decisions the candidate rules failed to evaluate")
+                .register(meterRegistry);
+        drainer.start();
+        log.info("Shadowing live decisions with the rules in {}", rulesFile);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        drainer.stop();
+    }
+
+    private void offer(long decision) {
+        if (!decisions.offer(decision)) {
+            dropped.increment();
+        }
+    }
+
+    private boolean evaluateNext() {
+        long decision = decisions.poll();
+        if (decision == 0) {
+            return false;
+        }
+        if (!matches(decision) && drainer.sample()) {
+            logMismatch(decision);
+        }
+        return true;
+    }
+
+    private void endWindow(long failed) {
+        failures.increment(failed);
+    }
+
+    private boolean matches(long decision) {
+        if ((decision & CUSTOMIZE) == 0) {
+            suggestions.increment();
+            if (candidateBundle(decision) == bundle(decision)) {
+                return true;
+            }
+            suggestionMismatches.increment();
+            return false;
+        }
+        customizations.increment();
+        if (candidateViolations(decision) == liveViolations(decision)) {
+            return true;
+        }
+        customizationMismatches.increment();
+        return false;
+    }
+
+    private void logMismatch(long decision) {
+        if ((decision & CUSTOMIZE) == 0) {
+            log.warn("Candidate rules suggest differently: age={} student={} income={} live={} candidate={}",
+                    age(decision), student(decision), income(decision), bundle(decision), candidateBundle(decision));
+        } else {
+            log.warn("Candidate rules customize differently: age={} student={} income={} bundle={} removeProducts={} addProducts={} live={} candidate={}",
+                    age(decision), student(decision), income(decision), bundle(decision),
+                    ProductMask.toList(decision >>> REMOVE_SHIFT & PRODUCTS), ProductMask.toList(decision >>> ADD_SHIFT & PRODUCTS),
+                    violations(liveViolations(decision)), violations(candidateViolations(decision)));
+        }
+    }
+
+    private Bundle candidateBundle(long decision) {
+        RuleSet rules = candidate.rules();
+        return rules.suggestion(rules.segment(age(decision), student(decision), income(decision)));
+    }
+
+    private int candidateViolations(long decision) {
+        DecodedCustomizeRequest request = new DecodedCustomizeRequest(bundle(decision), age(decision), student(decision), income(decision),
+                decision >>> REMOVE_SHIFT & PRODUCTS, decision >>> ADD_SHIFT & PRODUCTS, null);
+        return violationMask(candidate.customizeBundle(request).getBody().getViolations());
+    }
+
+    private static long pack(Age age, Student student, int income, Bundle bundle) {
+        return PRESENT
+                | Integer.toUnsignedLong(income)
+                | (long) age.ordinal() << AGE_SHIFT
+                | (long) student.ordinal() << STUDENT_SHIFT
+                | (long) bundle.ordinal() << BUNDLE_SHIFT;
+    }
+
+    private static int income(long decision) {
+        return (int) decision;
+    }
+
+    private static Age age(long decision) {
+        return AGES[(int) (decision >>> AGE_SHIFT & 0x3)];
+    }
+
+    private static Student student(long decision) {
+        return STUDENTS[(int) (decision >>> STUDENT_SHIFT & 0x1)];
+    }
+
+    private static Bundle bundle(long decision) {
+        return BUNDLES[(int) (decision >>> BUNDLE_SHIFT & 0x7)];
+    }
+
+    private static int liveViolations(long decision) {
+        return (int) (decision >>> VIOLATIONS_SHIFT & 0x7F);
+    }
+
+    private static int violationMask(List<Violations> violations) {
+        int mask = 0;
+        for (int i = 0, size = violations.size(); i < size; i++) {
+            mask |= 1 << violations.get(i).ordinal();
+        }
+        return mask;
+    }
+
+    private static List<Violations> violations(int mask) {
+        List<Violations> violations = new ArrayList<>(Integer.bitCount(mask));
+        for (int remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            violations.add(VIOLATIONS[Integer.numberOfTrailingZeros(remaining)]);
+        }
+        return violations;
+    }
+
+    private Counter counter(String name, String description, String decision) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("decision", decision)
+                .register(meterRegistry);
+    }
+}
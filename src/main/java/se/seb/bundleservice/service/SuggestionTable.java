@@ -0,0 +1,37 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.BundleResponse;
+
+/**
+ * Suggestion decisions for every {@link CustomerSegment}, built once per {@link RuleSet}.
+ * Lookups return shared immutable {@link BundleResponse} instances and allocate nothing.
+ */
+final class SuggestionTable {
+
+    private final Bundle[] bundles = new Bundle[CustomerSegment.COUNT];
+    private final BundleResponse[] suggestions = new BundleResponse[CustomerSegment.COUNT];
+
+    SuggestionTable(RuleSet rules) {
+        BundleResponse[] responsesByBundle = new BundleResponse[Bundle.values().length];
+        for (Bundle bundle : Bundle.values()) {
+            responsesByBundle[bundle.ordinal()] = BundleResponse.builder()
+                    .BundleName(bundle.getName())
+                    .products(bundle.getProducts())
+                    .build();
+        }
+        for (int segment = 0; segment < CustomerSegment.COUNT; segment++) {
+            Bundle bundle = rules.suggestion(segment);
+            bundles[segment] = bundle;
+            suggestions[segment] = responsesByBundle[bundle.ordinal()];
+        }
+    }
+
+    Bundle bundle(int segment) {
+        return bundles[segment];
+    }
+
+    BundleResponse lookup(int segment) {
+        return suggestions[segment];
+    }
+}
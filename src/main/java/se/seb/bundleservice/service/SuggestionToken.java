@@ -0,0 +1,9 @@
+package se.seb.bundleservice.service;
+
+import se.seb.bundleservice.model.Bundle;
+
+/**
+ * What a verified {@link SuggestionTokens suggestion token} vouches for.
+ */
+public record SuggestionToken(int segment, Bundle bundle, int income) {
+}
@@ -0,0 +1,139 @@
+package se.seb.bundleservice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.seb.bundleservice.model.Bundle;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Issues and verifies the signed tokens that let /customize start from a suggestion instead of the full
+ * question. A token carries the customer segment, the suggested bundle, the income and an expiry minute,
+ * followed by the first 16 bytes of their HMAC-SHA256 under {@code bundle.token.secret}, as 36 URL-safe
+ * Base64 characters. Nothing is stored server side, so any node sharing the secret accepts the token.
+ * Disabled when no secret is configured.
+ * <p>
+ * The segment is used as issued: a token minted before a rule reload keeps its segment until it expires.
+ */
+@Component
+public class SuggestionTokens {
+
+    private static final Bundle[] BUNDLES = Bundle.values();
+    private static final byte VERSION = 1;
+    private static final int PAYLOAD_BYTES = 11;
+    private static final int MAC_BYTES = 16;
+    private static final int TOKEN_CHARS = 36;
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final byte[] secret;
+    private final ThreadLocal<Mac> macs;
+    private final int ttlMinutes;
+    private final LongSupplier clock;
+
+    @Autowired
+    public SuggestionTokens(@Value("${bundle.token.secret:}") String secret,
+                            @Value("${bundle.token.ttl-minutes:15}") int ttlMinutes) {
+        this(secret, ttlMinutes, System::currentTimeMillis);
+    }
+
+    SuggestionTokens(String secret, int ttlMinutes, LongSupplier clock) {
+        this.secret = secret.isBlank() ? null : Base64.getDecoder().decode(secret.trim());
+        if (this.secret != null && this.secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("bundle.token.secret must be at least " + MIN_SECRET_BYTES + " bytes, Base64 encoded");
+        }
+        this.macs = ThreadLocal.withInitial(() -> mac(this.secret));
+        this.ttlMinutes = ttlMinutes;
+        this.clock = clock;
+    }
+
+    /**
+     * Tokens that are never issued and never accepted, for services that do not serve /customize.
+     */
+    public static SuggestionTokens disabled() {
+        return new SuggestionTokens("", 0);
+    }
+
+    public boolean isEnabled() {
+        return secret != null;
+    }
+
+    /**
+     * The token for a suggestion, or {@code null} when tokens are disabled.
+     */
+    public String issue(int segment, Bundle bundle, int income) {
+        if (secret == null) {
+            return null;
+        }
+        byte[] token = new byte[PAYLOAD_BYTES + MAC_BYTES];
+        ByteBuffer.wrap(token)
+                .put(VERSION)
+                .put((byte) segment)
+                .put((byte) bundle.ordinal())
+                .putInt(income)
+                .putInt((int) (currentMinute() + ttlMinutes));
+        Mac mac = macs.get();
+        mac.update(token, 0, PAYLOAD_BYTES);
+        System.arraycopy(mac.doFinal(), 0, token, PAYLOAD_BYTES, MAC_BYTES);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    public SuggestionToken verify(String token) {
+        if (secret == null) {
+            throw new InvalidTokenException("tokens are not accepted");
+        }
+        if (token == null || token.length() != TOKEN_CHARS) {
+            throw new InvalidTokenException("malformed");
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("malformed");
+        }
+        Mac mac = macs.get();
+        mac.update(bytes, 0, PAYLOAD_BYTES);
+        byte[] expected = mac.doFinal();
+        // Constant time, so the comparison does not reveal how many leading bytes of a forgery are right.
+        int difference = 0;
+        for (int i = 0; i < MAC_BYTES; i++) {
+            difference |= expected[i] ^ bytes[PAYLOAD_BYTES + i];
+        }
+        if (difference != 0) {
+            throw new InvalidTokenException("invalid signature");
+        }
+        ByteBuffer payload = ByteBuffer.wrap(bytes, 0, PAYLOAD_BYTES);
+        byte version = payload.get();
+        int segment = payload.get();
+        int bundle = payload.get();
+        int income = payload.getInt();
+        long expiresMinute = payload.getInt() & 0xFFFFFFFFL;
+        if (version != VERSION || segment < 0 || segment >= CustomerSegment.COUNT || bundle < 0 || bundle >= BUNDLES.length) {
+            throw new InvalidTokenException("malformed");
+        }
+        if (currentMinute() > expiresMinute) {
+            throw new InvalidTokenException("expired");
+        }
+        return new SuggestionToken(segment, BUNDLES[bundle], income);
+    }
+
+    private long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(clock.getAsLong());
+    }
+
+    private static Mac mac(byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package se.seb.bundleservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.Violations;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs rejected customizations off the request thread.
+ * <p>
+ * Request threads hand the (shared, immutable) response to a {@link RingBuffer} and return. A
+ * {@link WindowedDrainer} drains it, counts violations per window and logs the first few rejections of each
+ * window as samples, followed by a summary of the window's counts. When the buffer is full the rejection is dropped
+ * and only counted, so logging never blocks or slows down a request.
+ */
+@Slf4j
+@Component
+public class ViolationEventLog {
+
+    private static final Violations[] VIOLATIONS = Violations.values();
+
+    private final RingBuffer<CustomizedBundleResponse> events;
+    private final WindowedDrainer drainer;
+    private final LongAdder dropped = new LongAdder();
+    private final long[] counts = new long[VIOLATIONS.length];
+    private long rejections;
+
+    public ViolationEventLog(@Value("${bundle.violation-log.capacity:8192}") int capacity,
+                             @Value("${bundle.violation-log.window-seconds:10}") long windowSeconds,
+                             @Value("${bundle.violation-log.samples-per-window:5}") int samplesPerWindow) {
+        this.events = new RingBuffer<>(capacity);
+        this.drainer = new WindowedDrainer("violation-log", windowSeconds, samplesPerWindow, this::drainNext, this::summarize);
+    }
+
+    /**
+     * Queues {@code response} for logging if it has violations. Never blocks.
+     */
+    public void record(CustomizedBundleResponse response) {
+        if (response.getViolations().isEmpty()) {
+            return;
+        }
+        if (!events.offer(response)) {
+            dropped.increment();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        drainer.stop();
+    }
+
+    private boolean drainNext() {
+        CustomizedBundleResponse event = events.poll();
+        if (event == null) {
+            return false;
+        }
+        rejections++;
+        count(event.getViolations());
+        if (drainer.sample()) {
+            log.warn("Unable to customize due to violations={} bundle=\"{}\" illegalProducts={}",
+                    event.getViolations(), event.getBundleName(), event.getIllegalProducts());
+        }
+        return true;
+    }
+
+    private void count(List<Violations> violations) {
+        for (int i = 0, size = violations.size(); i < size; i++) {
+            counts[violations.get(i).ordinal()]++;
+        }
+    }
+
+    private void summarize(long failures) {
+        long droppedInWindow = dropped.sumThenReset();
+        if (rejections == 0 && droppedInWindow == 0) {
+            return;
+        }
+        StringJoiner summary = new StringJoiner(" ");
+        for (Violations violation : VIOLATIONS) {
+            if (counts[violation.ordinal()] > 0) {
+                summary.add(violation + "=" + counts[violation.ordinal()]);
+                counts[violation.ordinal()] = 0;
+            }
+        }
+        if (failures > 0) {
+            summary.add("failed=" + failures);
+        }
+        log.warn("Customization rejections in window: rejections={} dropped={} {}", rejections, droppedInWindow, summary);
+        rejections = 0;
+    }
+}
@@ -0,0 +1,108 @@
+package se.seb.bundleservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * A daemon thread that drains a queue filled by request threads, parking briefly whenever it is empty.
+ * <p>
+ * Time is cut into windows: each window allows a few samples to be logged, claimed with {@link #sample()},
+ * and ends with a call to {@code endWindow} with the number of items that failed in it. An item that throws
+ * is counted and skipped, and only the first failure of each window is logged, so a bad item never stops the
+ * thread or floods the log. On {@link #stop()} the items still queued are drained without samples and the
+ * last window is closed.
+ */
+@Slf4j
+final class WindowedDrainer {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final String name;
+    private final long windowNanos;
+    private final int samplesPerWindow;
+    private final BooleanSupplier drainNext;
+    private final LongConsumer endWindow;
+    private int samples;
+    private long failures;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param drainNext handles the next queued item, returning {@code false} when the queue is empty
+     * @param endWindow closes a window, given the number of items that failed in it
+     */
+    WindowedDrainer(String name, long windowSeconds, int samplesPerWindow, BooleanSupplier drainNext, LongConsumer endWindow) {
+        this.name = name;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.samplesPerWindow = samplesPerWindow;
+        this.drainNext = drainNext;
+        this.endWindow = endWindow;
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this::drain, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() throws InterruptedException {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(1));
+    }
+
+    /**
+     * Claims one of the current window's samples, returning {@code false} once they are used up. Only called
+     * from the draining thread.
+     */
+    boolean sample() {
+        if (samples < samplesPerWindow) {
+            samples++;
+            return true;
+        }
+        return false;
+    }
+
+    private void drain() {
+        long windowStart = System.nanoTime();
+        while (running) {
+            if (!drainSafely()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            if (System.nanoTime() - windowStart >= windowNanos) {
+                closeWindow();
+                windowStart = System.nanoTime();
+            }
+        }
+        samples = samplesPerWindow;
+        while (drainSafely()) {
+            // Count what was queued before stopping.
+        }
+        closeWindow();
+    }
+
+    private boolean drainSafely() {
+        try {
+            return drainNext.getAsBoolean();
+        } catch (RuntimeException e) {
+            if (failures++ == 0) {
+                log.warn("Skipping an item {} failed to handle", name, e);
+            }
+            return true;
+        }
+    }
+
+    private void closeWindow() {
+        endWindow.accept(failures);
+        samples = 0;
+        failures = 0;
+    }
+}
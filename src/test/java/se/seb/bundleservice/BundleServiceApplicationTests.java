@@ -1,13 +1,31 @@
 package se.seb.bundleservice;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.boot.test.context.SpringBootTest;
+import se.seb.bundleservice.controller.ResponseJsonCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class BundleServiceApplicationTests {
 
+	@Autowired
+	private ApplicationAvailability applicationAvailability;
+
+	@Autowired
+	private ResponseJsonCache responseJsonCache;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void shouldBeReadyOnlyAfterWarmUp() {
+		assertThat(applicationAvailability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+		assertThat(responseJsonCache.size()).isPositive();
+	}
+
 }
@@ -0,0 +1,100 @@
+package se.seb.bundleservice.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private static final String PROXY = "10.0.0.1";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldRejectClientOverQuotaWithoutAffectingOthers() throws Exception {
+        AdmissionControlFilter filter = filter(2, 8);
+
+        assertThat(perform(filter, "/suggest", "flood").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "/customize", "flood").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = perform(filter, "/customize", "flood");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1000");
+        assertThat(rejected.getContentType()).isEqualTo(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        assertThat(rejected.getContentAsString()).contains("\"status\":429", "\"detail\":\"Request quota exceeded\"");
+        assertThat(perform(filter, "/customize", "partner").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "/swagger-ui.html", "flood").getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("bundle.admission.rejected").tag("endpoint", "customize").tag("reason", "quota").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectRequestsBeyondConcurrencyLimit() throws Exception {
+        AdmissionControlFilter filter = filter(100, 1);
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain chain = (request, response) -> nested.set(perform(filter, "/customize", "other"));
+
+        filter.doFilter(request("/customize", "client"), new MockHttpServletResponse(), chain);
+
+        assertThat(nested.get().getStatus()).isEqualTo(429);
+        assertThat(nested.get().getContentAsString()).contains("\"detail\":\"Too many concurrent requests\"");
+        assertThat(perform(filter, "/customize", "other").getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.get("bundle.admission.in.flight").tag("endpoint", "customize").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldOnlyTrustClientHeaderFromProxies() throws Exception {
+        AdmissionControlFilter filter = filter(2, 8);
+        MockHttpServletRequest rotating = request("/suggest", "flood-1");
+        rotating.setRemoteAddr("192.0.2.7");
+
+        assertThat(perform(filter, rotating).getStatus()).isEqualTo(200);
+        rotating.removeHeader("X-Client-Id");
+        rotating.addHeader("X-Client-Id", "flood-2");
+        assertThat(perform(filter, rotating).getStatus()).isEqualTo(200);
+        rotating.removeHeader("X-Client-Id");
+        rotating.addHeader("X-Client-Id", "flood-3");
+        assertThat(perform(filter, rotating).getStatus()).isEqualTo(429);
+
+        MockHttpServletRequest authenticated = request("/suggest", "flood-4");
+        authenticated.setRemoteAddr("192.0.2.7");
+        authenticated.setUserPrincipal(() -> "partner");
+        assertThat(perform(filter, authenticated).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "/suggest", "flood-1").getStatus()).isEqualTo(200);
+    }
+
+    private AdmissionControlFilter filter(int burst, int maxConcurrent) throws Exception {
+        return new AdmissionControlFilter("X-Client-Id", Set.of(PROXY), 0.001, burst, 100, maxConcurrent, 1, new ObjectMapper(), meterRegistry);
+    }
+
+    private static MockHttpServletResponse perform(AdmissionControlFilter filter, String path, String client) {
+        return perform(filter, request(path, client));
+    }
+
+    private static MockHttpServletResponse perform(AdmissionControlFilter filter, MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", path);
+        request.setRemoteAddr(PROXY);
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+}
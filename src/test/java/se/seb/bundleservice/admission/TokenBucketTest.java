@@ -0,0 +1,39 @@
+package se.seb.bundleservice.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void shouldAdmitBurstThenRefillAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10);
+        assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+        assertThat(bucket.isFull(SECOND / 10)).isFalse();
+        assertThat(bucket.isFull(SECOND)).isTrue();
+    }
+
+    @Test
+    void shouldShareOverflowBucketOnceClientsAreCapped() {
+        ClientQuotas quotas = new ClientQuotas(1, 1, 2, 0);
+
+        assertThat(quotas.tryAcquire("a", 0)).isZero();
+        assertThat(quotas.tryAcquire("b", 0)).isZero();
+        assertThat(quotas.tryAcquire("c", 0)).isZero();
+        assertThat(quotas.tryAcquire("d", 0)).isPositive();
+        assertThat(quotas.clients()).isEqualTo(2);
+
+        assertThat(quotas.tryAcquire("d", 5 * SECOND)).isZero();
+        assertThat(quotas.clients()).isEqualTo(1);
+    }
+}
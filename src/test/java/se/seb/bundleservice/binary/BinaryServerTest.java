@@ -0,0 +1,154 @@
+package se.seb.bundleservice.binary;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.CustomizationTable;
+import se.seb.bundleservice.service.RuleSet;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static se.seb.bundleservice.model.Bundle.GOLD;
+import static se.seb.bundleservice.model.Bundle.STUDENT;
+import static se.seb.bundleservice.model.Product.CREDIT_CARD;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.DEBIT_CARD;
+import static se.seb.bundleservice.model.Product.GOLD_CREDIT_CARD;
+import static se.seb.bundleservice.model.Product.STUDENT_ACCOUNT;
+
+class BinaryServerTest {
+
+    private BundleService bundleService;
+    private BinaryServer server;
+    private BinaryClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bundleService = BundleService.detached(CustomizationTable.FillMode.EAGER, Long.MAX_VALUE, RuleSet.defaults());
+        server = new BinaryServer(bundleService, 0);
+        client = new BinaryClient("localhost", server.port());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.stop();
+    }
+
+    @Test
+    void shouldAnswerLikeTheHttpApi() throws IOException {
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.YES, 50000);
+        CustomizeBundleRequest accepted = new CustomizeBundleRequest(STUDENT, question, List.of(DEBIT_CARD), List.of());
+        CustomizeBundleRequest rejected = new CustomizeBundleRequest(STUDENT, question, List.of(STUDENT_ACCOUNT), List.of(GOLD_CREDIT_CARD, CURRENT_ACCOUNT));
+
+        assertThat(client.suggest(question)).isEqualTo(bundleService.suggestBundle(question));
+        assertThat(client.suggest(new QuestionRequest(Age.ADULT, Student.NO, 50000)).getBundleName()).isEqualTo(GOLD.getName());
+        assertThat(client.customize(accepted)).isEqualTo(bundleService.customizeBundle(accepted).getBody());
+        assertThat(client.customize(rejected)).isEqualTo(bundleService.customizeBundle(rejected).getBody());
+        assertThat(client.customize(rejected).getProducts()).containsExactly(DEBIT_CARD, CREDIT_CARD, GOLD_CREDIT_CARD, CURRENT_ACCOUNT);
+    }
+
+    @Test
+    void shouldRejectInvalidRequestAndKeepConnection() throws IOException {
+        assertThatThrownBy(() -> client.suggest(new QuestionRequest(Age.ADULT, Student.NO, -1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("income: must be greater than or equal to 0");
+
+        assertThat(client.suggest(new QuestionRequest(Age.ADULT, Student.NO, 0)).getBundleName()).isEqualTo("Empty");
+    }
+
+    @Test
+    void shouldCloseOnlyTheConnectionThatFailed() throws Exception {
+        BundleService failing = mock(BundleService.class);
+        when(failing.suggestBundle(any()))
+                .thenThrow(new IllegalStateException("Rules unavailable"))
+                .thenAnswer(invocation -> bundleService.suggestBundle(invocation.getArgument(0)));
+        BinaryServer failingServer = new BinaryServer(failing, 0);
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", failingServer.port()))) {
+            ByteBuffer frame = ByteBuffer.allocate(BinaryProtocol.SUGGEST_BYTES);
+            BinaryProtocol.writeSuggest(1, new QuestionRequest(Age.ADULT, Student.NO, 50000), frame);
+            channel.write(frame.flip());
+            channel.configureBlocking(false);
+            ByteBuffer response = ByteBuffer.allocate(BinaryProtocol.SUGGESTED_BYTES);
+            int read = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (read == 0 && System.nanoTime() < deadline) {
+                read = channel.read(response);
+            }
+            assertThat(read).isEqualTo(-1);
+
+            try (BinaryClient other = new BinaryClient("localhost", failingServer.port())) {
+                assertThat(other.suggest(new QuestionRequest(Age.ADULT, Student.NO, 50000)).getBundleName()).isEqualTo(GOLD.getName());
+            }
+        } finally {
+            failingServer.stop();
+        }
+    }
+
+    @Test
+    void shouldAnswerPipelinedRequestsInOrder() throws IOException {
+        int requests = 20_000;
+        ByteBuffer frames = ByteBuffer.allocate(requests * BinaryProtocol.SUGGEST_BYTES);
+        for (int id = 0; id < requests; id++) {
+            BinaryProtocol.writeSuggest(id, new QuestionRequest(Age.PENSION, Student.NO, id), frames);
+        }
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.port()))) {
+            channel.write(frames.flip());
+            ByteBuffer responses = ByteBuffer.allocate(requests * BinaryProtocol.SUGGESTED_BYTES);
+            while (responses.hasRemaining()) {
+                channel.read(responses);
+            }
+            responses.flip();
+            for (int id = 0; id < requests; id++) {
+                assertThat(responses.get()).isEqualTo(BinaryProtocol.SUGGESTED);
+                assertThat(responses.getInt()).isEqualTo(id);
+                responses.get();
+            }
+        }
+    }
+
+    @Test
+    void shouldAnswerPipelinedRequestsWithLargerResponses() throws IOException {
+        int requests = 20_000;
+        String detail = "income: must be greater than or equal to 0";
+        CustomizeBundleRequest invalid = new CustomizeBundleRequest(STUDENT, new QuestionRequest(Age.ADULT, Student.YES, -1), List.of(), List.of());
+        ByteBuffer frames = ByteBuffer.allocate(requests * BinaryProtocol.CUSTOMIZE_BYTES);
+        for (int id = 0; id < requests; id++) {
+            BinaryProtocol.writeCustomize(id, invalid, frames);
+        }
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.port()))) {
+            int responseBytes = BinaryProtocol.INVALID_HEADER_BYTES + detail.length();
+            ByteBuffer responses = ByteBuffer.allocate(requests * responseBytes);
+            frames.flip();
+            channel.configureBlocking(false);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (responses.hasRemaining() && System.nanoTime() < deadline) {
+                channel.write(frames);
+                channel.read(responses);
+            }
+            assertThat(responses.position()).isEqualTo(requests * responseBytes);
+            responses.flip();
+            for (int id = 0; id < requests; id++) {
+                assertThat(responses.get()).isEqualTo(BinaryProtocol.INVALID);
+                assertThat(responses.getInt()).isEqualTo(id);
+                assertThat(responses.getShort()).isEqualTo((short) detail.length());
+                responses.position(responses.position() + detail.length());
+            }
+        }
+    }
+}
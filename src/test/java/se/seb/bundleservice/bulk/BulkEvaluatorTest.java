@@ -0,0 +1,100 @@
+package se.seb.bundleservice.bulk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.seb.bundleservice.controller.ResponseJsonCache;
+import se.seb.bundleservice.controller.StreamingRequestDecoder;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.BatchItemEvaluator;
+import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.CustomizationTable;
+import se.seb.bundleservice.service.RuleSet;
+
+import javax.validation.Validation;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkEvaluatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BundleService bundleService = BundleService.detached(CustomizationTable.FillMode.EAGER, Long.MAX_VALUE, RuleSet.defaults());
+
+    @Test
+    void shouldAnswerEveryRecordInInputOrder(@TempDir Path directory) throws Exception {
+        List<String> lines = new ArrayList<>();
+        List<Integer> incomes = new ArrayList<>();
+        for (int record = 0; record < 60; record++) {
+            int income = record * 997;
+            incomes.add(record % 7 == 3 ? null : income);
+            lines.add(record % 7 == 3 ? "{\"age\":\"ADULT\",\"student\":\"NO\",\"income\":-1}" : question(income));
+            if (record % 5 == 0) {
+                lines.add(record % 10 == 0 ? "" : "  \t\r");
+            }
+        }
+        lines.set(lines.size() - 1, "{\"age\":");
+        incomes.set(incomes.size() - 1, null);
+        Path input = directory.resolve("requests.ndjson");
+        Files.writeString(input, String.join("\n", lines));
+        Path output = directory.resolve("results.ndjson");
+
+        BulkReport report = evaluator(new BatchItemEvaluator(bundleService, Validation.buildDefaultValidatorFactory().getValidator()))
+                .evaluate(input, output, BulkType.SUGGEST);
+
+        assertThat(report.records()).isEqualTo(60);
+        List<String> results = Files.readAllLines(output);
+        assertThat(results).hasSize(60);
+        for (int record = 0; record < 60; record++) {
+            JsonNode result = objectMapper.readTree(results.get(record));
+            assertThat(result.get("index").asLong()).isEqualTo(record);
+            Integer income = incomes.get(record);
+            if (income == null) {
+                assertThat(result.get("status").asInt()).isEqualTo(400);
+                assertThat(result.get("error").asText()).isNotEmpty();
+            } else {
+                assertThat(result.get("status").asInt()).isEqualTo(201);
+                assertThat(result.get("body"))
+                        .isEqualTo(objectMapper.valueToTree(bundleService.suggestBundle(new QuestionRequest(Age.ADULT, Student.NO, income))));
+            }
+        }
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactlyInAnyOrder(input, output);
+        }
+    }
+
+    @Test
+    void shouldDeletePartFilesWhenEvaluationFails(@TempDir Path directory) throws Exception {
+        BatchItemEvaluator failing = mock(BatchItemEvaluator.class);
+        when(failing.suggestDecoded(anyLong(), any())).thenThrow(new IllegalStateException("Rules unavailable"));
+        Path input = directory.resolve("requests.ndjson");
+        Files.writeString(input, String.join("\n", question(0), question(30000), question(50000)));
+
+        assertThatThrownBy(() -> evaluator(failing).evaluate(input, directory.resolve("results.ndjson"), BulkType.SUGGEST))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("Rules unavailable");
+
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(input);
+        }
+    }
+
+    private BulkEvaluator evaluator(BatchItemEvaluator batchItemEvaluator) {
+        return new BulkEvaluator(batchItemEvaluator, new StreamingRequestDecoder(objectMapper.getFactory()), new ResponseJsonCache(objectMapper, 16), 2);
+    }
+
+    private static String question(int income) {
+        return "{\"age\":\"ADULT\",\"student\":\"NO\",\"income\":" + income + "}";
+    }
+}
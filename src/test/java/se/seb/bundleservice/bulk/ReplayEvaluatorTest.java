@@ -0,0 +1,116 @@
+package se.seb.bundleservice.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.RuleDefinition;
+import se.seb.bundleservice.model.Status;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.DecisionJournal;
+import se.seb.bundleservice.service.JournalRecord;
+import se.seb.bundleservice.service.ProductMask;
+import se.seb.bundleservice.service.RuleSet;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static se.seb.bundleservice.model.Bundle.CLASSIC;
+import static se.seb.bundleservice.model.Bundle.CLASSIC_PLUS;
+import static se.seb.bundleservice.model.Bundle.EMPTY;
+import static se.seb.bundleservice.model.Bundle.GOLD;
+import static se.seb.bundleservice.model.Bundle.JUNIOR_SAVER;
+import static se.seb.bundleservice.model.Bundle.STUDENT;
+import static se.seb.bundleservice.model.Product.GOLD_CREDIT_CARD;
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_FOR_STUDENT;
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_MORE_THAN_40K;
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_UP_TO_12K;
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_UP_TO_40K;
+import static se.seb.bundleservice.model.Violations.INCOME_ZERO;
+import static se.seb.bundleservice.model.Violations.JUNIOR_ISSUE;
+
+class ReplayEvaluatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldReportDecisionsChangedByCandidateRules(@TempDir Path directory) throws Exception {
+        Path journal = directory.resolve("journal");
+        DecisionJournal decisionJournal = new DecisionJournal(journal.toString(), 2 * 32, 1);
+        decisionJournal.start();
+        decisionJournal.suggested(Age.ADULT, Student.NO, 30000, CLASSIC_PLUS);
+        decisionJournal.suggested(Age.ADULT, Student.NO, 50000, GOLD);
+        decisionJournal.suggested(Age.PENSION, Student.NO, 0, EMPTY);
+        decisionJournal.customized(Age.ADULT, Student.NO, 50000, CLASSIC_PLUS, ProductMask.NONE, ProductMask.of(GOLD_CREDIT_CARD),
+                ProductMask.of(CLASSIC_PLUS) | ProductMask.of(GOLD_CREDIT_CARD), CustomizedBundleResponse.builder()
+                        .illegalProducts(List.of())
+                        .violations(List.of())
+                        .build());
+        decisionJournal.stop();
+        Path output = directory.resolve("diff.ndjson");
+
+        ReplayReport report = new ReplayEvaluator(RuleSet.defaults(), raisedGoldLimit(), objectMapper, 2).replay(journal, output);
+
+        assertThat(report.records()).isEqualTo(4);
+        assertThat(report.changed()).isEqualTo(2);
+        assertThat(report.changedByBundle()).isEqualTo(Map.of(GOLD, 1L, CLASSIC_PLUS, 1L));
+        assertThat(report.violationsGained()).isEqualTo(Map.of(ILLEGAL_PRODUCTS_UP_TO_40K, 1L));
+        assertThat(report.violationsLost()).isEmpty();
+        List<String> lines = Files.readAllLines(output);
+        assertThat(lines).hasSize(2);
+        ReplayDiff suggestion = objectMapper.readValue(lines.get(0), ReplayDiff.class);
+        assertThat(suggestion.decision()).isEqualTo(JournalRecord.Decision.SUGGEST);
+        assertThat(suggestion.record()).isEqualTo(1);
+        assertThat(suggestion.current().bundleName()).isEqualTo(GOLD.getName());
+        assertThat(suggestion.candidate().bundleName()).isEqualTo(CLASSIC_PLUS.getName());
+        ReplayDiff customization = objectMapper.readValue(lines.get(1), ReplayDiff.class);
+        assertThat(customization.segment()).isNotEqualTo(suggestion.segment());
+        assertThat(customization.addProducts()).containsExactly(GOLD_CREDIT_CARD);
+        assertThat(customization.current().status()).isEqualTo(Status.SUCCESSFUL);
+        assertThat(customization.candidate().status()).isEqualTo(Status.ERROR);
+        assertThat(customization.candidate().violations()).containsExactly(ILLEGAL_PRODUCTS_UP_TO_40K);
+    }
+
+    @Test
+    void shouldDeletePartFilesWhenReplayFails(@TempDir Path directory) throws Exception {
+        Path journal = directory.resolve("journal");
+        DecisionJournal decisionJournal = new DecisionJournal(journal.toString(), 2 * 32, 1);
+        decisionJournal.start();
+        decisionJournal.suggested(Age.ADULT, Student.NO, 30000, CLASSIC_PLUS);
+        decisionJournal.suggested(Age.ADULT, Student.NO, 50000, GOLD);
+        decisionJournal.suggested(Age.PENSION, Student.NO, 0, EMPTY);
+        decisionJournal.stop();
+        List<Path> segments = DecisionJournal.segments(journal);
+        assertThat(segments).hasSize(2);
+        byte[] corrupted = Files.readAllBytes(segments.get(1));
+        corrupted[0] = 0x7F;
+        Files.write(segments.get(1), corrupted);
+
+        assertThatThrownBy(() -> new ReplayEvaluator(RuleSet.defaults(), raisedGoldLimit(), objectMapper, 2)
+                .replay(journal, directory.resolve("diff.ndjson")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseInstanceOf(ArrayIndexOutOfBoundsException.class);
+
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(journal);
+        }
+    }
+
+    /**
+     * The default rules with the top income band starting above 60000 instead of 40000.
+     */
+    private static RuleSet raisedGoldLimit() {
+        return RuleSet.compile(new RuleDefinition(
+                new RuleDefinition.Rule(null, JUNIOR_SAVER, JUNIOR_ISSUE.getProducts()),
+                new RuleDefinition.Rule(null, STUDENT, ILLEGAL_PRODUCTS_FOR_STUDENT.getProducts()),
+                List.of(new RuleDefinition.Rule(0, EMPTY, INCOME_ZERO.getProducts()),
+                        new RuleDefinition.Rule(12000, CLASSIC, ILLEGAL_PRODUCTS_UP_TO_12K.getProducts()),
+                        new RuleDefinition.Rule(60000, CLASSIC_PLUS, ILLEGAL_PRODUCTS_UP_TO_40K.getProducts()),
+                        new RuleDefinition.Rule(null, GOLD, ILLEGAL_PRODUCTS_MORE_THAN_40K.getProducts()))));
+    }
+}
@@ -0,0 +1,111 @@
+package se.seb.bundleservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.BundleResponse;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Status;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.model.Violations;
+import se.seb.bundleservice.service.BatchItemEvaluator;
+import se.seb.bundleservice.service.BundleService;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.http.HttpStatus.UNAVAILABLE_FOR_LEGAL_REASONS;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static se.seb.bundleservice.model.Bundle.CLASSIC;
+import static se.seb.bundleservice.model.Bundle.GOLD;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.DEBIT_CARD;
+
+@WebMvcTest(controllers = {BatchController.class})
+@Import(BatchItemEvaluator.class)
+class BatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private BundleService bundleService;
+
+    @Test
+    void shouldSuggestBundlesForNdjsonStreamInInputOrder() throws Exception {
+        QuestionRequest gold = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        BundleResponse goldResponse = BundleResponse.builder()
+                .BundleName(GOLD.getName())
+                .products(GOLD.getProducts())
+                .build();
+        given(bundleService.suggestBundle(eq(gold))).willReturn(goldResponse);
+        String body = objectMapper.writeValueAsString(gold) + "\n"
+                + "{\"age\":\"ADULT\",\"student\":\"NO\",\"income\":-1}\n"
+                + "{\"age\":\"TEENAGER\",\"student\":\"NO\",\"income\":1}\n"
+                + objectMapper.writeValueAsString(gold) + "\n";
+
+        String expectedGold = objectMapper.writeValueAsString(goldResponse);
+        mockMvc.perform(post("/suggest/batch")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("{\"index\":0,\"status\":201,\"body\":" + expectedGold + "}\n"
+                        + "{\"index\":1,\"status\":400,\"error\":\"income: ")))
+                .andExpect(content().string(containsString("{\"index\":2,\"status\":400,")))
+                .andExpect(content().string(containsString("{\"index\":3,\"status\":201,\"body\":" + expectedGold + "}\n")));
+    }
+
+    @Test
+    void shouldCustomizeBundlesForJsonArrayWithPerItemStatus() throws Exception {
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 10000);
+        CustomizeBundleRequest request = new CustomizeBundleRequest(CLASSIC, question, List.of(CURRENT_ACCOUNT), null);
+        CustomizedBundleResponse response = CustomizedBundleResponse.builder()
+                .bundleName(CLASSIC.getName())
+                .products(List.of(DEBIT_CARD))
+                .illegalProducts(List.of())
+                .violations(List.of(Violations.ACCOUNT_ISSUE))
+                .status(Status.ERROR)
+                .build();
+        given(bundleService.customizeBundle(eq(request))).willReturn(ResponseEntity.status(UNAVAILABLE_FOR_LEGAL_REASONS).body(response));
+        String body = objectMapper.writeValueAsString(List.of(request, new CustomizeBundleRequest(null, question, null, null)));
+
+        mockMvc.perform(put("/customize/batch")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("{\"index\":0,\"status\":451,\"body\":" + objectMapper.writeValueAsString(response) + "}\n"
+                        + "{\"index\":1,\"status\":400,\"error\":\"bundle: ")));
+    }
+
+    @Test
+    void shouldRejectInvalidQuestionInCustomizeBatch() throws Exception {
+        String body = "{\"bundle\":\"CLASSIC\",\"questionRequest\":{\"age\":\"ADULT\",\"student\":\"NO\",\"income\":-1}}\n";
+
+        mockMvc.perform(put("/customize/batch")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"index\":0,\"status\":400,\"error\":\"questionRequest.income: must be greater than or equal to 0\"}\n"));
+        verifyNoInteractions(bundleService);
+    }
+}
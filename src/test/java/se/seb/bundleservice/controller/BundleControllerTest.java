@@ -5,26 +5,45 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.BestBundleRequest;
+import se.seb.bundleservice.model.BestBundleResponse;
+import se.seb.bundleservice.model.BundleEligibility;
 import se.seb.bundleservice.model.BundleResponse;
 import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizeStep;
+import se.seb.bundleservice.model.CustomizeStepsRequest;
+import se.seb.bundleservice.model.CustomizeSuggestionRequest;
 import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.CustomizedStepsResponse;
+import se.seb.bundleservice.model.EligibilityResponse;
+import se.seb.bundleservice.model.ProductEligibility;
 import se.seb.bundleservice.model.QuestionRequest;
 import se.seb.bundleservice.model.Status;
 import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.model.Violations;
 import se.seb.bundleservice.service.BundleService;
+import se.seb.bundleservice.service.DecodedBestBundleRequest;
+import se.seb.bundleservice.service.DecodedCustomizeRequest;
+import se.seb.bundleservice.service.DecodedCustomizeSteps;
+import se.seb.bundleservice.service.DecodedProductChanges;
+import se.seb.bundleservice.service.InvalidTokenException;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static se.seb.bundleservice.model.Bundle.GOLD;
@@ -44,6 +63,9 @@ class BundleControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ResponseJsonCache responseJsonCache;
+
     @MockBean
     private BundleService bundleService;
 
@@ -65,6 +87,64 @@ class BundleControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    void shouldWriteSuggestionWithContentLengthAndETag() throws Exception {
+        BundleResponse bundleResponse = BundleResponse.builder()
+                .BundleName(GOLD.getName())
+                .products(GOLD.getProducts())
+                .build();
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        given(bundleService.suggestBundle(eq(question))).willReturn(bundleResponse);
+        byte[] expected = objectMapper.writeValueAsBytes(bundleResponse);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/suggest")
+                            .content(objectMapper.writeValueAsString(question))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated())
+                    .andExpect(content().bytes(expected))
+                    .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, expected.length))
+                    .andExpect(header().exists(HttpHeaders.ETAG));
+        }
+    }
+
+    @Test
+    void shouldRejectSuggestionWithNegativeIncome() throws Exception {
+        mockMvc.perform(post("/suggest")
+                        .content("{\"age\":\"ADULT\",\"student\":\"NO\",\"income\":-1}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status", equalTo(400)))
+                .andExpect(jsonPath("$.detail", equalTo("income: must be greater than or equal to 0")));
+    }
+
+    @Test
+    void shouldServeRepeatedProblemFromCache() throws Exception {
+        int cached = 0;
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(put("/customize")
+                            .content("{\"bundle\":\"GOLD\",")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+            if (i == 0) {
+                cached = responseJsonCache.size();
+            }
+        }
+
+        assertThat(responseJsonCache.size()).isEqualTo(cached);
+    }
+
+    @Test
+    void shouldRejectMalformedCustomizationWithoutEchoingIt() throws Exception {
+        mockMvc.perform(put("/customize")
+                        .content("{\"bundle\":\"GOLD\",<script>")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail", equalTo("Malformed JSON request body")));
+    }
+
     @Test
     void shouldCustomizeGoldBundle() throws Exception {
 
@@ -79,7 +159,7 @@ class BundleControllerTest {
                 .status(Status.SUCCESSFUL)
                 .products(List.of(CURRENT_ACCOUNT, DEBIT_CARD, GOLD_CREDIT_CARD))
                 .build();
-        given(bundleService.customizeBundle(eq(modifyBundleRequest))).willReturn(ResponseEntity.accepted().body(response));
+        given(bundleService.customizeBundle(eq(DecodedCustomizeRequest.of(modifyBundleRequest)))).willReturn(ResponseEntity.accepted().body(response));
 
 
         mockMvc.perform(put("/customize")
@@ -91,4 +171,135 @@ class BundleControllerTest {
                 .andExpect(jsonPath("$.status", equalTo(Status.SUCCESSFUL.name())))
                 .andExpect(jsonPath("$.products", equalTo(List.of(CURRENT_ACCOUNT.name(), DEBIT_CARD.name(), GOLD_CREDIT_CARD.name()))));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindBestBundle() throws Exception {
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        BestBundleRequest request = new BestBundleRequest(question, List.of(GOLD_CREDIT_CARD, CURRENT_ACCOUNT_PLUS));
+        BestBundleResponse response = BestBundleResponse.builder()
+                .bundleName(GOLD.getName())
+                .products(GOLD.getProducts())
+                .addProducts(List.of())
+                .droppedProducts(List.of())
+                .build();
+        given(bundleService.bestBundle(eq(DecodedBestBundleRequest.of(request)))).willReturn(ResponseEntity.ok(response));
+
+        mockMvc.perform(post("/best-bundle")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bundleName", equalTo(GOLD.getName())))
+                .andExpect(jsonPath("$.products", equalTo(List.of(CURRENT_ACCOUNT_PLUS.name(), DEBIT_CARD.name(), GOLD_CREDIT_CARD.name()))))
+                .andExpect(jsonPath("$.droppedProducts", equalTo(List.of())));
+    }
+
+    @Test
+    void shouldWriteEligibility() throws Exception {
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        EligibilityResponse eligibility = EligibilityResponse.builder()
+                .bundles(List.of(BundleEligibility.builder()
+                        .bundle(GOLD)
+                        .bundleName(GOLD.getName())
+                        .allowed(true)
+                        .violations(List.of())
+                        .illegalProducts(List.of())
+                        .build()))
+                .products(List.of(ProductEligibility.builder()
+                        .product(JUNIOR_SAVER_ACCOUNT)
+                        .allowed(false)
+                        .violations(List.of(Violations.ILLEGAL_PRODUCTS_MORE_THAN_40K))
+                        .build()))
+                .build();
+        given(bundleService.eligibility(eq(question))).willReturn(eligibility);
+
+        mockMvc.perform(post("/eligibility")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(question)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.bundles[0].bundle", equalTo(GOLD.name())))
+                .andExpect(jsonPath("$.bundles[0].allowed", equalTo(true)))
+                .andExpect(jsonPath("$.products[0].allowed", equalTo(false)))
+                .andExpect(jsonPath("$.products[0].violations", equalTo(List.of(Violations.ILLEGAL_PRODUCTS_MORE_THAN_40K.name()))));
+    }
+
+    @Test
+    void shouldCustomizeSuggestionFromToken() throws Exception {
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        given(bundleService.suggestBundle(eq(question))).willReturn(BundleResponse.builder()
+                .BundleName(GOLD.getName())
+                .products(GOLD.getProducts())
+                .build());
+        given(bundleService.suggestionToken(eq(question))).willReturn("token");
+        CustomizeSuggestionRequest changes = new CustomizeSuggestionRequest(List.of(CURRENT_ACCOUNT_PLUS), List.of(CURRENT_ACCOUNT));
+        CustomizedBundleResponse response = CustomizedBundleResponse.builder()
+                .bundleName(GOLD.getName())
+                .status(Status.SUCCESSFUL)
+                .products(List.of(DEBIT_CARD, GOLD_CREDIT_CARD, CURRENT_ACCOUNT))
+                .build();
+        given(bundleService.customizeSuggestion(eq("token"), eq(DecodedProductChanges.of(changes)))).willReturn(ResponseEntity.accepted().body(response));
+
+        mockMvc.perform(post("/suggest")
+                        .content(objectMapper.writeValueAsString(question))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(BundleController.SUGGESTION_TOKEN, "token"));
+        mockMvc.perform(put("/customize")
+                        .header(BundleController.SUGGESTION_TOKEN, "token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changes)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.products", equalTo(List.of(DEBIT_CARD.name(), GOLD_CREDIT_CARD.name(), CURRENT_ACCOUNT.name()))));
+    }
+
+    @Test
+    void shouldRejectExpiredSuggestionToken() throws Exception {
+        given(bundleService.customizeSuggestion(eq("token"), eq(new DecodedProductChanges(0, 0, null))))
+                .willThrow(new InvalidTokenException("expired"));
+
+        mockMvc.perform(put("/customize")
+                        .header(BundleController.SUGGESTION_TOKEN, "token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail", equalTo("Suggestion-Token: expired")));
+    }
+
+    @Test
+    void shouldCustomizeInSteps() throws Exception {
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        CustomizeStepsRequest request = new CustomizeStepsRequest(GOLD, question, List.of(
+                new CustomizeStep(List.of(CURRENT_ACCOUNT_PLUS), null),
+                new CustomizeStep(null, List.of(CURRENT_ACCOUNT))));
+        CustomizedBundleResponse accountIssue = CustomizedBundleResponse.builder()
+                .bundleName(GOLD.getName())
+                .status(Status.ERROR)
+                .products(List.of(DEBIT_CARD, GOLD_CREDIT_CARD))
+                .violations(List.of(Violations.ACCOUNT_ISSUE))
+                .build();
+        CustomizedBundleResponse customized = CustomizedBundleResponse.builder()
+                .bundleName(GOLD.getName())
+                .status(Status.SUCCESSFUL)
+                .products(List.of(DEBIT_CARD, GOLD_CREDIT_CARD, CURRENT_ACCOUNT))
+                .build();
+        given(bundleService.customizeSteps(eq(DecodedCustomizeSteps.of(request))))
+                .willReturn(ResponseEntity.accepted().body(CustomizedStepsResponse.builder().steps(List.of(accountIssue, customized)).build()));
+
+        mockMvc.perform(put("/customize/steps")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.steps[0].status", equalTo(Status.ERROR.name())))
+                .andExpect(jsonPath("$.steps[1].products", equalTo(List.of(DEBIT_CARD.name(), GOLD_CREDIT_CARD.name(), CURRENT_ACCOUNT.name()))));
+    }
+
+    @Test
+    void shouldRejectCustomizationWithoutSteps() throws Exception {
+        mockMvc.perform(put("/customize/steps")
+                        .content("{\"bundle\":\"GOLD\",\"questionRequest\":{\"age\":\"ADULT\",\"student\":\"NO\"},\"steps\":[]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", equalTo("steps: size must be between 1 and 64")));
+    }
+}
@@ -0,0 +1,78 @@
+package se.seb.bundleservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.service.DecodedCustomizeRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static se.seb.bundleservice.model.Bundle.CLASSIC;
+import static se.seb.bundleservice.model.Bundle.STUDENT;
+import static se.seb.bundleservice.model.Product.CREDIT_CARD;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT_PLUS;
+import static se.seb.bundleservice.model.Product.DEBIT_CARD;
+import static se.seb.bundleservice.model.Product.STUDENT_ACCOUNT;
+
+class StreamingRequestDecoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StreamingRequestDecoder decoder = new StreamingRequestDecoder(objectMapper.getFactory());
+
+    @Test
+    void shouldDecodeRequestsLikeDatabind() throws IOException {
+        QuestionRequest question = new QuestionRequest(Age.PENSION, Student.NO, 12000);
+        List<CustomizeBundleRequest> requests = List.of(
+                new CustomizeBundleRequest(CLASSIC, question, List.of(CURRENT_ACCOUNT), List.of(CURRENT_ACCOUNT_PLUS, CREDIT_CARD)),
+                new CustomizeBundleRequest(CLASSIC, question, null, List.of(CREDIT_CARD, CURRENT_ACCOUNT_PLUS, CREDIT_CARD)),
+                new CustomizeBundleRequest(STUDENT, question, List.of(STUDENT_ACCOUNT, DEBIT_CARD), null));
+
+        assertThat(readQuestion(objectMapper.writeValueAsString(question))).isEqualTo(question);
+        for (CustomizeBundleRequest request : requests) {
+            assertThat(readCustomize(objectMapper.writeValueAsString(request))).isEqualTo(DecodedCustomizeRequest.of(request));
+        }
+    }
+
+    @Test
+    void shouldKeepAddedProductsOnlyWhenOutOfOrder() throws IOException {
+        String question = "{\"age\":\"ADULT\",\"student\":\"NO\",\"income\":50000}";
+
+        DecodedCustomizeRequest ascending = readCustomize("{\"bundle\":\"CLASSIC\",\"questionRequest\":" + question + ",\"addProducts\":[\"CURRENT_ACCOUNT_PLUS\",\"CREDIT_CARD\"]}");
+        DecodedCustomizeRequest reversed = readCustomize("{\"bundle\":\"CLASSIC\",\"questionRequest\":" + question + ",\"addProducts\":[\"CREDIT_CARD\",\"CURRENT_ACCOUNT_PLUS\",\"CREDIT_CARD\"]}");
+
+        assertThat(ascending.addProductsInRequestOrder()).isNull();
+        assertThat(reversed.addProducts()).isEqualTo(ascending.addProducts());
+        assertThat(reversed.addProductsInRequestOrder()).containsExactly(CREDIT_CARD, CURRENT_ACCOUNT_PLUS);
+    }
+
+    @Test
+    void shouldApplyRequestConstraintsWhileDecoding() {
+        assertThatThrownBy(() -> readQuestion("{\"age\":\"ADULT\",\"student\":\"NO\",\"income\":-1}"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("income: must be greater than or equal to 0");
+        assertThatThrownBy(() -> readQuestion("{\"age\":\"TEENAGER\",\"student\":\"NO\"}"))
+                .hasMessage("age: must be one of [UNDER_AGE, ADULT, PENSION]");
+        assertThatThrownBy(() -> readCustomize("{\"bundle\":\"GOLD\",\"questionRequest\":{\"age\":\"ADULT\"}}"))
+                .hasMessage("questionRequest.student: must not be null");
+        assertThatThrownBy(() -> readCustomize("{\"questionRequest\":{\"age\":\"ADULT\",\"student\":\"NO\"}}"))
+                .hasMessage("bundle: must not be null");
+    }
+
+    private QuestionRequest readQuestion(String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return decoder.readQuestion(bytes, 0, bytes.length);
+    }
+
+    private DecodedCustomizeRequest readCustomize(String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return decoder.readCustomize(bytes, 0, bytes.length);
+    }
+}
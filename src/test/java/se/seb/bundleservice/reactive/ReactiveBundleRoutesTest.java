@@ -0,0 +1,120 @@
+package se.seb.bundleservice.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import se.seb.bundleservice.controller.ResponseJsonCache;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.BundleResponse;
+import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Status;
+import se.seb.bundleservice.model.Student;
+import se.seb.bundleservice.model.Violations;
+import se.seb.bundleservice.service.BatchItemEvaluator;
+import se.seb.bundleservice.service.BundleService;
+
+import javax.validation.Validation;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.springframework.http.HttpStatus.UNAVAILABLE_FOR_LEGAL_REASONS;
+import static se.seb.bundleservice.model.Bundle.CLASSIC;
+import static se.seb.bundleservice.model.Bundle.GOLD;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.DEBIT_CARD;
+
+class ReactiveBundleRoutesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BundleService bundleService;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        bundleService = mock(BundleService.class);
+        BatchItemEvaluator batchItemEvaluator = new BatchItemEvaluator(bundleService, Validation.buildDefaultValidatorFactory().getValidator());
+        ReactiveBundleRoutes routes = new ReactiveBundleRoutes(batchItemEvaluator, new ResponseJsonCache(objectMapper, 16));
+        webTestClient = WebTestClient.bindToRouterFunction(routes.routes()).build();
+    }
+
+    @Test
+    void shouldSuggestBundleWithCreatedStatus() throws Exception {
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        BundleResponse bundleResponse = BundleResponse.builder()
+                .BundleName(GOLD.getName())
+                .products(GOLD.getProducts())
+                .build();
+        given(bundleService.suggestBundle(eq(question))).willReturn(bundleResponse);
+
+        webTestClient.post().uri("/suggest")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(question))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().exists("ETag")
+                .expectBody().json(objectMapper.writeValueAsString(bundleResponse));
+    }
+
+    @Test
+    void shouldRejectCustomizationForLegalReasons() throws Exception {
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 10000);
+        CustomizeBundleRequest request = new CustomizeBundleRequest(CLASSIC, question, List.of(CURRENT_ACCOUNT), null);
+        CustomizedBundleResponse response = CustomizedBundleResponse.builder()
+                .bundleName(CLASSIC.getName())
+                .products(List.of(DEBIT_CARD))
+                .illegalProducts(List.of())
+                .violations(List.of(Violations.ACCOUNT_ISSUE))
+                .status(Status.ERROR)
+                .build();
+        given(bundleService.customizeBundle(eq(request))).willReturn(ResponseEntity.status(UNAVAILABLE_FOR_LEGAL_REASONS).body(response));
+
+        webTestClient.put().uri("/customize")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(request))
+                .exchange()
+                .expectStatus().isEqualTo(UNAVAILABLE_FOR_LEGAL_REASONS)
+                .expectBody().json(objectMapper.writeValueAsString(response));
+    }
+
+    @Test
+    void shouldAnswerInvalidRequestWithProblem() {
+        webTestClient.post().uri("/suggest")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"age\":\"ADULT\",\"student\":\"NO\",\"income\":-1}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody().json("{\"type\":\"about:blank\",\"title\":\"Bad Request\",\"status\":400,"
+                        + "\"detail\":\"income: must be greater than or equal to 0\"}");
+    }
+
+    @Test
+    void shouldStreamBatchResultsInInputOrder() throws Exception {
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        BundleResponse bundleResponse = BundleResponse.builder()
+                .BundleName(GOLD.getName())
+                .products(GOLD.getProducts())
+                .build();
+        given(bundleService.suggestBundle(eq(question))).willReturn(bundleResponse);
+        String body = objectMapper.writeValueAsString(question) + "\n"
+                + "{\"age\":\"ADULT\",\"student\":\"NO\",\"income\":-1}\n";
+
+        String expectedGold = objectMapper.writeValueAsString(bundleResponse);
+        webTestClient.post().uri("/suggest/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).value(lines -> assertThat(lines)
+                        .startsWith("{\"index\":0,\"status\":201,\"body\":" + expectedGold + "}\n{\"index\":1,\"status\":400,\"error\":\"income: "));
+    }
+}
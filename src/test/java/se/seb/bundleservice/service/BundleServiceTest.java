@@ -1,16 +1,30 @@
 package se.seb.bundleservice.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.BestBundleRequest;
+import se.seb.bundleservice.model.BestBundleResponse;
+import se.seb.bundleservice.model.Bundle;
+import se.seb.bundleservice.model.BundleEligibility;
 import se.seb.bundleservice.model.BundleResponse;
 import se.seb.bundleservice.model.CustomizeBundleRequest;
+import se.seb.bundleservice.model.CustomizeStep;
+import se.seb.bundleservice.model.CustomizeStepsRequest;
+import se.seb.bundleservice.model.CustomizeSuggestionRequest;
 import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.CustomizedStepsResponse;
+import se.seb.bundleservice.model.EligibilityResponse;
+import se.seb.bundleservice.model.Product;
+import se.seb.bundleservice.model.ProductEligibility;
 import se.seb.bundleservice.model.QuestionRequest;
 import se.seb.bundleservice.model.Status;
 import se.seb.bundleservice.model.Student;
@@ -19,6 +33,7 @@ import se.seb.bundleservice.model.Violations;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static se.seb.bundleservice.model.Bundle.CLASSIC;
 import static se.seb.bundleservice.model.Bundle.CLASSIC_PLUS;
 import static se.seb.bundleservice.model.Bundle.GOLD;
@@ -34,12 +49,16 @@ import static se.seb.bundleservice.model.Product.STUDENT_ACCOUNT;
 
 
 @ExtendWith(SpringExtension.class)
-@Import(BundleService.class)
+@TestPropertySource(properties = "bundle.token.secret=AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=")
+@Import({BundleService.class, DecisionMetrics.class, ViolationEventLog.class, DecisionJournal.class, ShadowEvaluator.class, SuggestionTokens.class, SimpleMeterRegistry.class})
 class BundleServiceTest {
 
     @Autowired
     private BundleService bundleService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void shouldSuggestBundleOfJuniorSaver() {
         QuestionRequest question = new QuestionRequest(Age.UNDER_AGE, Student.NO, 0);
@@ -110,6 +129,15 @@ class BundleServiceTest {
         assertThat(bundleResponse.getBundleName()).isEqualTo("Empty");
     }
 
+    @Test
+    void shouldReturnSameSuggestionInstanceForSameIncomeBand() {
+        BundleResponse first = bundleService.suggestBundle(new QuestionRequest(Age.PENSION, Student.NO, 12001));
+        BundleResponse second = bundleService.suggestBundle(new QuestionRequest(Age.PENSION, Student.NO, 40000));
+
+        assertThat(first.getBundleName()).isEqualTo("Classic Plus");
+        assertThat(second).isSameAs(first);
+    }
+
     @Test
     void shouldNotCustomizeBundleIfCustomerDoesNotHaveAccountWithCorrectIncome() {
         QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 10000);
@@ -414,4 +442,142 @@ class BundleServiceTest {
         assertThat(response.getBody().getIllegalProducts()).containsExactly(CURRENT_ACCOUNT, STUDENT_ACCOUNT);
         assertThat(response.getBody().getViolations()).containsExactly(Violations.ACCOUNT_ISSUE, Violations.ILLEGAL_PRODUCTS_FOR_STUDENT);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldKeepRequestedOrderOfAddedProducts() {
+        QuestionRequest questionRequest = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        CustomizeBundleRequest inOrder = new CustomizeBundleRequest(CLASSIC, questionRequest, List.of(CURRENT_ACCOUNT), List.of(CURRENT_ACCOUNT_PLUS, CREDIT_CARD));
+        CustomizeBundleRequest reversed = new CustomizeBundleRequest(CLASSIC, questionRequest, List.of(CURRENT_ACCOUNT), List.of(CREDIT_CARD, CURRENT_ACCOUNT_PLUS));
+
+        ResponseEntity<CustomizedBundleResponse> inOrderResponse = bundleService.customizeBundle(inOrder);
+        ResponseEntity<CustomizedBundleResponse> reversedResponse = bundleService.customizeBundle(reversed);
+
+        assertThat(inOrderResponse.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(inOrderResponse.getBody().getProducts()).containsExactly(DEBIT_CARD, CURRENT_ACCOUNT_PLUS, CREDIT_CARD);
+        assertThat(reversedResponse.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(reversedResponse.getBody().getProducts()).containsExactly(DEBIT_CARD, CREDIT_CARD, CURRENT_ACCOUNT_PLUS);
+    }
+
+    @Test
+    void shouldAnswerEveryCustomizationStep() {
+        QuestionRequest questionRequest = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        CustomizeStepsRequest request = new CustomizeStepsRequest(CLASSIC, questionRequest, List.of(
+                new CustomizeStep(null, List.of(CREDIT_CARD)),
+                new CustomizeStep(List.of(CURRENT_ACCOUNT), null),
+                new CustomizeStep(null, List.of(GOLD_CREDIT_CARD, CURRENT_ACCOUNT_PLUS))));
+
+        ResponseEntity<CustomizedStepsResponse> response = bundleService.customizeSteps(DecodedCustomizeSteps.of(request));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getBody().getSteps()).extracting(CustomizedBundleResponse::getStatus)
+                .containsExactly(Status.SUCCESSFUL, Status.ERROR, Status.SUCCESSFUL);
+        assertThat(response.getBody().getSteps().get(1).getViolations()).containsExactly(Violations.ACCOUNT_ISSUE);
+        assertThat(response.getBody().getSteps().get(2)).isEqualTo(bundleService.customizeBundle(new CustomizeBundleRequest(CLASSIC, questionRequest,
+                List.of(CURRENT_ACCOUNT), List.of(CREDIT_CARD, GOLD_CREDIT_CARD, CURRENT_ACCOUNT_PLUS))).getBody());
+    }
+
+    @Test
+    void shouldCustomizeSuggestionFromToken() {
+        QuestionRequest questionRequest = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        String token = bundleService.suggestionToken(questionRequest);
+        CustomizeBundleRequest fullRequest = new CustomizeBundleRequest(GOLD, questionRequest, List.of(GOLD_CREDIT_CARD), List.of(CREDIT_CARD));
+
+        ResponseEntity<CustomizedBundleResponse> response = bundleService.customizeSuggestion(token,
+                DecodedProductChanges.of(new CustomizeSuggestionRequest(List.of(GOLD_CREDIT_CARD), List.of(CREDIT_CARD))));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getBody()).isEqualTo(bundleService.customizeBundle(fullRequest).getBody());
+    }
+
+    @Test
+    void shouldRejectForgedSuggestionToken() {
+        String token = bundleService.suggestionToken(new QuestionRequest(Age.ADULT, Student.NO, 10000));
+        String forged = token.substring(0, token.length() - 1) + (token.endsWith("A") ? "B" : "A");
+        DecodedProductChanges changes = DecodedProductChanges.of(new CustomizeSuggestionRequest(null, List.of(GOLD_CREDIT_CARD)));
+
+        assertThatThrownBy(() -> bundleService.customizeSuggestion(forged, changes))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void shouldFindMostValuableBundleForDesiredProducts() {
+        QuestionRequest questionRequest = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        BestBundleRequest request = new BestBundleRequest(questionRequest, List.of(GOLD_CREDIT_CARD, CURRENT_ACCOUNT, DEBIT_CARD, CREDIT_CARD));
+
+        ResponseEntity<BestBundleResponse> response = bundleService.bestBundle(DecodedBestBundleRequest.of(request));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getBundleName()).isEqualTo(CLASSIC_PLUS.getName());
+        assertThat(response.getBody().getProducts()).containsExactly(CURRENT_ACCOUNT, DEBIT_CARD, CREDIT_CARD, GOLD_CREDIT_CARD);
+        assertThat(response.getBody().getAddProducts()).containsExactly(GOLD_CREDIT_CARD);
+        assertThat(response.getBody().getDroppedProducts()).isEmpty();
+    }
+
+    @Test
+    void shouldDropForbiddenProductsFromBestBundle() {
+        QuestionRequest questionRequest = new QuestionRequest(Age.ADULT, Student.NO, 10000);
+        BestBundleRequest request = new BestBundleRequest(questionRequest, List.of(CURRENT_ACCOUNT, DEBIT_CARD, GOLD_CREDIT_CARD));
+
+        ResponseEntity<BestBundleResponse> response = bundleService.bestBundle(DecodedBestBundleRequest.of(request));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getBundleName()).isEqualTo(CLASSIC.getName());
+        assertThat(response.getBody().getProducts()).containsExactly(CURRENT_ACCOUNT, DEBIT_CARD);
+        assertThat(response.getBody().getAddProducts()).isEmpty();
+        assertThat(response.getBody().getDroppedProducts()).containsExactly(GOLD_CREDIT_CARD);
+    }
+
+    @Test
+    void shouldNotFindBestBundleForUnderAge() {
+        QuestionRequest questionRequest = new QuestionRequest(Age.UNDER_AGE, Student.NO, 0);
+        BestBundleRequest request = new BestBundleRequest(questionRequest, List.of(DEBIT_CARD));
+
+        ResponseEntity<BestBundleResponse> response = bundleService.bestBundle(DecodedBestBundleRequest.of(request));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAVAILABLE_FOR_LEGAL_REASONS);
+        assertThat(response.getBody().getBundleName()).isEqualTo(JUNIOR_SAVER.getName());
+        assertThat(response.getBody().getProducts()).containsExactly(JUNIOR_SAVER_ACCOUNT);
+        assertThat(response.getBody().getDroppedProducts()).containsExactly(DEBIT_CARD);
+    }
+
+    @Test
+    void shouldTellWhichBundlesAndProductsAreEligible() {
+        EligibilityResponse eligibility = bundleService.eligibility(new QuestionRequest(Age.ADULT, Student.NO, 10000));
+
+        assertThat(eligibility.getBundles()).filteredOn(BundleEligibility::isAllowed)
+                .extracting(BundleEligibility::getBundle).containsExactly(CLASSIC);
+        assertThat(eligibility.getBundles()).filteredOn(bundle -> bundle.getBundle() == GOLD).singleElement()
+                .satisfies(gold -> {
+                    assertThat(gold.getViolations()).containsExactly(Violations.ILLEGAL_PRODUCTS_UP_TO_12K);
+                    assertThat(gold.getIllegalProducts()).containsExactly(CURRENT_ACCOUNT_PLUS, GOLD_CREDIT_CARD);
+                });
+        assertThat(eligibility.getProducts()).filteredOn(ProductEligibility::isAllowed)
+                .extracting(ProductEligibility::getProduct).containsExactly(CURRENT_ACCOUNT, DEBIT_CARD);
+        assertThat(eligibility.getProducts()).filteredOn(product -> !product.isAllowed())
+                .allSatisfy(product -> assertThat(product.getViolations()).containsExactly(Violations.ILLEGAL_PRODUCTS_UP_TO_12K));
+    }
+
+    @Test
+    void shouldNotMakeAnythingEligibleForUnderAge() {
+        EligibilityResponse eligibility = bundleService.eligibility(new QuestionRequest(Age.UNDER_AGE, Student.NO, 0));
+
+        assertThat(eligibility.getBundles()).hasSize(Bundle.values().length).noneMatch(BundleEligibility::isAllowed);
+        assertThat(eligibility.getProducts()).hasSize(Product.values().length)
+                .allSatisfy(product -> assertThat(product.getViolations()).containsExactly(Violations.JUNIOR_ISSUE));
+    }
+
+    @Test
+    void shouldCountSuggestedBundlesAndViolations() {
+        double goldBefore = meterRegistry.counter("bundle.suggestions", "bundle", GOLD.name()).count();
+        double rejectedBefore = meterRegistry.counter("bundle.customizations", "status", "451").count();
+        double accountIssuesBefore = meterRegistry.counter("bundle.customize.violations", "violation", Violations.ACCOUNT_ISSUE.name()).count();
+        QuestionRequest questionRequest = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+
+        bundleService.suggestBundle(questionRequest);
+        bundleService.customizeBundle(new CustomizeBundleRequest(GOLD, questionRequest, List.of(CURRENT_ACCOUNT_PLUS), null));
+
+        assertThat(meterRegistry.counter("bundle.suggestions", "bundle", GOLD.name()).count()).isEqualTo(goldBefore + 1);
+        assertThat(meterRegistry.counter("bundle.customizations", "status", "451").count()).isEqualTo(rejectedBefore + 1);
+        assertThat(meterRegistry.counter("bundle.customize.violations", "violation", Violations.ACCOUNT_ISSUE.name()).count()).isEqualTo(accountIssuesBefore + 1);
+    }
+}
@@ -0,0 +1,76 @@
+package se.seb.bundleservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.Student;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.seb.bundleservice.model.Bundle.CLASSIC;
+import static se.seb.bundleservice.model.Bundle.GOLD;
+import static se.seb.bundleservice.model.Product.CREDIT_CARD;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.DEBIT_CARD;
+import static se.seb.bundleservice.model.Violations.ACCOUNT_ISSUE;
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_FOR_STUDENT;
+
+class DecisionJournalTest {
+
+    @Test
+    void shouldReadBackDecisionsAcrossSegmentsAndRestarts(@TempDir Path directory) throws Exception {
+        DecisionJournal journal = new DecisionJournal(directory.toString(), 4 * DecisionJournal.RECORD_BYTES, 1);
+        journal.start();
+        for (int income = 0; income < 10; income++) {
+            journal.suggested(Age.ADULT, Student.NO, income, GOLD);
+        }
+        journal.stop();
+        DecisionJournal restarted = new DecisionJournal(directory.toString(), 4 * DecisionJournal.RECORD_BYTES, 1);
+        restarted.start();
+        CustomizedBundleResponse response = CustomizedBundleResponse.builder()
+                .illegalProducts(List.of(CURRENT_ACCOUNT, CREDIT_CARD))
+                .violations(List.of(ACCOUNT_ISSUE, ILLEGAL_PRODUCTS_FOR_STUDENT))
+                .build();
+        long products = ProductMask.of(List.of(CURRENT_ACCOUNT, DEBIT_CARD, CREDIT_CARD));
+        restarted.customized(Age.PENSION, Student.YES, 15000, CLASSIC, ProductMask.NONE, ProductMask.of(CREDIT_CARD), products, response);
+        restarted.stop();
+
+        List<JournalRecord> records = new ArrayList<>();
+        DecisionJournal.read(directory, records::add);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(4);
+        }
+        assertThat(records).hasSize(11);
+        assertThat(records.subList(0, 10)).extracting(JournalRecord::income).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(records.get(9)).extracting(JournalRecord::decision, JournalRecord::age, JournalRecord::bundle, JournalRecord::products)
+                .containsExactly(JournalRecord.Decision.SUGGEST, Age.ADULT, GOLD, ProductMask.of(GOLD));
+        JournalRecord customized = records.get(10);
+        assertThat(customized.decision()).isEqualTo(JournalRecord.Decision.CUSTOMIZE);
+        assertThat(customized.student()).isEqualTo(Student.YES);
+        assertThat(customized.income()).isEqualTo(15000);
+        assertThat(customized.addProducts()).isEqualTo(ProductMask.of(CREDIT_CARD));
+        assertThat(customized.products()).isEqualTo(products);
+        assertThat(customized.illegalProducts()).isEqualTo(ProductMask.of(List.of(CURRENT_ACCOUNT, CREDIT_CARD)));
+        assertThat(customized.violations()).containsExactlyInAnyOrder(ACCOUNT_ISSUE, ILLEGAL_PRODUCTS_FOR_STUDENT);
+    }
+
+    @Test
+    void shouldRecordNothingWhenDisabled(@TempDir Path directory) throws IOException {
+        DecisionJournal journal = DecisionJournal.disabled();
+        journal.start();
+
+        journal.suggested(Age.ADULT, Student.NO, 0, GOLD);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+}
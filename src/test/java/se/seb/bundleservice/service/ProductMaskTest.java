@@ -0,0 +1,46 @@
+package se.seb.bundleservice.service;
+
+import org.junit.jupiter.api.Test;
+import se.seb.bundleservice.model.Violations;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.seb.bundleservice.model.Bundle.EMPTY;
+import static se.seb.bundleservice.model.Bundle.GOLD;
+import static se.seb.bundleservice.model.Product.CREDIT_CARD;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT;
+import static se.seb.bundleservice.model.Product.CURRENT_ACCOUNT_PLUS;
+import static se.seb.bundleservice.model.Product.DEBIT_CARD;
+import static se.seb.bundleservice.model.Product.GOLD_CREDIT_CARD;
+import static se.seb.bundleservice.model.Product.STUDENT_ACCOUNT;
+
+class ProductMaskTest {
+
+    @Test
+    void shouldCompileBundleProductsToMask() {
+        long mask = ProductMask.of(GOLD);
+
+        assertThat(ProductMask.contains(mask, CURRENT_ACCOUNT_PLUS)).isTrue();
+        assertThat(ProductMask.contains(mask, GOLD_CREDIT_CARD)).isTrue();
+        assertThat(ProductMask.contains(mask, CREDIT_CARD)).isFalse();
+        assertThat(ProductMask.accountCount(mask)).isEqualTo(1);
+        assertThat(ProductMask.of(EMPTY)).isEqualTo(ProductMask.NONE);
+    }
+
+    @Test
+    void shouldCompileViolationProductsToMask() {
+        for (Violations violation : Violations.values()) {
+            assertThat(ProductMask.toList(ProductMask.of(violation))).containsExactlyInAnyOrderElementsOf(violation.getProducts());
+        }
+    }
+
+    @Test
+    void shouldMaterializeProductsInRequestedOrder() {
+        long mask = ProductMask.of(List.of(STUDENT_ACCOUNT, CREDIT_CARD, CURRENT_ACCOUNT));
+
+        assertThat(ProductMask.toList(mask)).containsExactly(CURRENT_ACCOUNT, STUDENT_ACCOUNT, CREDIT_CARD);
+        assertThat(ProductMask.toList(mask, List.of(STUDENT_ACCOUNT, DEBIT_CARD, CREDIT_CARD), List.of(CURRENT_ACCOUNT, CREDIT_CARD)))
+                .containsExactly(STUDENT_ACCOUNT, CREDIT_CARD, CURRENT_ACCOUNT);
+    }
+}
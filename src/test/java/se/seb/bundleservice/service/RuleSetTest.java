@@ -0,0 +1,119 @@
+package se.seb.bundleservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.IncomeBand;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.RuleDefinition;
+import se.seb.bundleservice.model.Student;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static se.seb.bundleservice.model.Bundle.CLASSIC;
+import static se.seb.bundleservice.model.Bundle.CLASSIC_PLUS;
+import static se.seb.bundleservice.model.Bundle.EMPTY;
+import static se.seb.bundleservice.model.Bundle.GOLD;
+import static se.seb.bundleservice.model.Product.GOLD_CREDIT_CARD;
+
+class RuleSetTest {
+
+    private static final String RULES = """
+            underAge:
+              bundle: JUNIOR_SAVER
+              forbiddenProducts: [STUDENT_ACCOUNT, CURRENT_ACCOUNT, CURRENT_ACCOUNT_PLUS, DEBIT_CARD, CREDIT_CARD, GOLD_CREDIT_CARD]
+            student:
+              bundle: STUDENT
+              forbiddenProducts: [CURRENT_ACCOUNT_PLUS, CURRENT_ACCOUNT, GOLD_CREDIT_CARD, JUNIOR_SAVER_ACCOUNT]
+            incomeBands:
+              - maxIncome: 0
+                bundle: EMPTY
+                forbiddenProducts: [JUNIOR_SAVER_ACCOUNT, STUDENT_ACCOUNT, CURRENT_ACCOUNT, CURRENT_ACCOUNT_PLUS, DEBIT_CARD, CREDIT_CARD, GOLD_CREDIT_CARD]
+              - maxIncome: 20000
+                bundle: CLASSIC
+                forbiddenProducts: [CURRENT_ACCOUNT_PLUS, CREDIT_CARD, GOLD_CREDIT_CARD, STUDENT_ACCOUNT, JUNIOR_SAVER_ACCOUNT]
+              - maxIncome: 60000
+                bundle: CLASSIC_PLUS
+                forbiddenProducts: [CURRENT_ACCOUNT_PLUS, GOLD_CREDIT_CARD, STUDENT_ACCOUNT, JUNIOR_SAVER_ACCOUNT]
+              - bundle: GOLD
+                forbiddenProducts: [JUNIOR_SAVER_ACCOUNT, STUDENT_ACCOUNT]
+            """;
+
+    @Test
+    void shouldKeepOriginalIncomeLimitsByDefault() {
+        RuleSet rules = RuleSet.defaults();
+
+        assertThat(rules.incomeBand(0)).isEqualTo(IncomeBand.ZERO);
+        assertThat(rules.incomeBand(12000)).isEqualTo(IncomeBand.UP_TO_12K);
+        assertThat(rules.incomeBand(40000)).isEqualTo(IncomeBand.UP_TO_40K);
+        assertThat(rules.incomeBand(40001)).isEqualTo(IncomeBand.MORE_THAN_40K);
+    }
+
+    @Test
+    void shouldApplyRulesLoadedFromFile(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("rules.yml"), RULES);
+        BundleService bundleService = new BundleService(CustomizationTable.FillMode.LAZY, 500,
+                new DecisionMetrics(new SimpleMeterRegistry()), new ViolationEventLog(16, 10, 0),
+                DecisionJournal.disabled(), ShadowEvaluator.disabled(), SuggestionTokens.disabled());
+        QuestionRequest question = new QuestionRequest(Age.ADULT, Student.NO, 50000);
+        assertThat(bundleService.suggestBundle(question).getBundleName()).isEqualTo(GOLD.getName());
+
+        bundleService.apply(RuleFileWatcher.load(file));
+
+        assertThat(bundleService.suggestBundle(question).getBundleName()).isEqualTo(CLASSIC_PLUS.getName());
+        assertThat(bundleService.suggestBundle(new QuestionRequest(Age.ADULT, Student.NO, 15000)).getBundleName()).isEqualTo(CLASSIC.getName());
+        assertThat(bundleService.suggestBundle(new QuestionRequest(Age.PENSION, Student.NO, 0)).getBundleName()).isEqualTo(EMPTY.getName());
+    }
+
+    @Test
+    void shouldRejectIncomeLimitsOutOfOrder() {
+        RuleDefinition.Rule gold = new RuleDefinition.Rule(null, GOLD, List.of(GOLD_CREDIT_CARD));
+        RuleDefinition definition = new RuleDefinition(gold, gold, List.of(
+                new RuleDefinition.Rule(0, EMPTY, List.of()),
+                new RuleDefinition.Rule(40000, CLASSIC, List.of()),
+                new RuleDefinition.Rule(12000, CLASSIC_PLUS, List.of()),
+                gold));
+
+        assertThatThrownBy(() -> RuleSet.compile(definition))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("incomeBands[2].maxIncome");
+    }
+
+    @Test
+    void shouldRejectMissingForbiddenProduct(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("rules.yml"), RULES.replace("[JUNIOR_SAVER_ACCOUNT, STUDENT_ACCOUNT]", "[~]"));
+
+        assertThatThrownBy(() -> RuleFileWatcher.load(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("ILLEGAL_PRODUCTS_MORE_THAN_40K forbiddenProducts[0] is missing");
+    }
+
+    @Test
+    void shouldKeepWatchingAfterFailedReload(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("rules.yml"), RULES);
+        BundleService bundleService = mock(BundleService.class);
+        doNothing().doThrow(new IllegalStateException("Table rebuild failed")).doNothing().when(bundleService).apply(any());
+        RuleFileWatcher watcher = new RuleFileWatcher(bundleService, file.toString());
+        watcher.start();
+        try {
+            Files.writeString(file, RULES);
+            verify(bundleService, timeout(10000).times(2)).apply(any());
+
+            Files.writeString(file, RULES);
+            verify(bundleService, timeout(10000).times(3)).apply(any());
+        } finally {
+            watcher.stop();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package se.seb.bundleservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.QuestionRequest;
+import se.seb.bundleservice.model.Student;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.seb.bundleservice.model.Bundle.CLASSIC_PLUS;
+import static se.seb.bundleservice.model.Bundle.GOLD;
+import static se.seb.bundleservice.model.Product.GOLD_CREDIT_CARD;
+
+class ShadowEvaluatorTest {
+
+    // The default rules with the top income band starting above 60000 instead of 40000.
+    private static final String CANDIDATE_RULES = """
+            underAge:
+              bundle: JUNIOR_SAVER
+              forbiddenProducts: [STUDENT_ACCOUNT, CURRENT_ACCOUNT, CURRENT_ACCOUNT_PLUS, DEBIT_CARD, CREDIT_CARD, GOLD_CREDIT_CARD]
+            student:
+              bundle: STUDENT
+              forbiddenProducts: [CURRENT_ACCOUNT_PLUS, CURRENT_ACCOUNT, GOLD_CREDIT_CARD, JUNIOR_SAVER_ACCOUNT]
+            incomeBands:
+              - maxIncome: 0
+                bundle: EMPTY
+                forbiddenProducts: [JUNIOR_SAVER_ACCOUNT, STUDENT_ACCOUNT, CURRENT_ACCOUNT, CURRENT_ACCOUNT_PLUS, DEBIT_CARD, CREDIT_CARD, GOLD_CREDIT_CARD]
+              - maxIncome: 12000
+                bundle: CLASSIC
+                forbiddenProducts: [CURRENT_ACCOUNT_PLUS, CREDIT_CARD, GOLD_CREDIT_CARD, STUDENT_ACCOUNT, JUNIOR_SAVER_ACCOUNT]
+              - maxIncome: 60000
+                bundle: CLASSIC_PLUS
+                forbiddenProducts: [CURRENT_ACCOUNT_PLUS, GOLD_CREDIT_CARD, STUDENT_ACCOUNT, JUNIOR_SAVER_ACCOUNT]
+              - bundle: GOLD
+                forbiddenProducts: [JUNIOR_SAVER_ACCOUNT, STUDENT_ACCOUNT]
+            """;
+
+    @Test
+    void shouldCountLiveDecisionsTheCandidateRulesDecideDifferently(@TempDir Path directory) throws Exception {
+        Path rules = Files.writeString(directory.resolve("candidate.yml"), CANDIDATE_RULES);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ShadowEvaluator shadowEvaluator = new ShadowEvaluator(rules.toString(), 64, 10, 5, meterRegistry);
+        shadowEvaluator.start();
+        BundleService bundleService = new BundleService(CustomizationTable.FillMode.LAZY, 500,
+                new DecisionMetrics(new SimpleMeterRegistry()), new ViolationEventLog(16, 10, 0),
+                DecisionJournal.disabled(), shadowEvaluator, SuggestionTokens.disabled());
+
+        bundleService.suggestBundle(new QuestionRequest(Age.ADULT, Student.NO, 30000));
+        bundleService.suggestBundle(new QuestionRequest(Age.ADULT, Student.NO, 50000));
+        bundleService.customizeBundle(new DecodedCustomizeRequest(CLASSIC_PLUS, Age.ADULT, Student.NO, 50000,
+                ProductMask.NONE, ProductMask.of(GOLD_CREDIT_CARD), null));
+        bundleService.customizeBundle(new DecodedCustomizeRequest(GOLD, Age.ADULT, Student.NO, 80000,
+                ProductMask.NONE, ProductMask.NONE, null));
+        awaitEvaluations(meterRegistry, 4);
+        shadowEvaluator.stop();
+
+        assertThat(count(meterRegistry, "bundle.shadow.evaluations", "suggest")).isEqualTo(2);
+        assertThat(count(meterRegistry, "bundle.shadow.mismatches", "suggest")).isEqualTo(1);
+        assertThat(count(meterRegistry, "bundle.shadow.evaluations", "customize")).isEqualTo(2);
+        assertThat(count(meterRegistry, "bundle.shadow.mismatches", "customize")).isEqualTo(1);
+        assertThat(meterRegistry.get("bundle.shadow.dropped").counter().count()).isZero();
+    }
+
+    private static void awaitEvaluations(SimpleMeterRegistry meterRegistry, int evaluations) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (count(meterRegistry, "bundle.shadow.evaluations", "suggest") + count(meterRegistry, "bundle.shadow.evaluations", "customize") < evaluations
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static double count(SimpleMeterRegistry meterRegistry, String name, String decision) {
+        return meterRegistry.get(name).tag("decision", decision).counter().count();
+    }
+}
@@ -0,0 +1,70 @@
+package se.seb.bundleservice.service;
+
+import org.junit.jupiter.api.Test;
+import se.seb.bundleservice.model.Age;
+import se.seb.bundleservice.model.IncomeBand;
+import se.seb.bundleservice.model.Student;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static se.seb.bundleservice.model.Bundle.GOLD;
+
+class SuggestionTokensTest {
+
+    private static final String SECRET = "AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=";
+    private static final int SEGMENT = CustomerSegment.of(Age.ADULT, Student.NO, IncomeBand.MORE_THAN_40K);
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(20000));
+    private final SuggestionTokens tokens = new SuggestionTokens(SECRET, 15, now::get);
+
+    @Test
+    void shouldVerifyIssuedToken() {
+        String token = tokens.issue(SEGMENT, GOLD, 50000);
+
+        assertThat(token).hasSize(36).matches("[A-Za-z0-9_-]+");
+        assertThat(tokens.verify(token)).isEqualTo(new SuggestionToken(SEGMENT, GOLD, 50000));
+        assertThat(new SuggestionTokens(SECRET, 15, now::get).verify(token)).isEqualTo(new SuggestionToken(SEGMENT, GOLD, 50000));
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        String token = tokens.issue(SEGMENT, GOLD, 50000);
+        char[] tampered = token.toCharArray();
+        tampered[5] = tampered[5] == 'A' ? 'B' : 'A';
+
+        assertThatThrownBy(() -> tokens.verify(new String(tampered)))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessage("invalid signature");
+        assertThatThrownBy(() -> new SuggestionTokens(SECRET.replace('A', 'B'), 15, now::get).verify(token))
+                .hasMessage("invalid signature");
+        assertThatThrownBy(() -> tokens.verify(token.substring(1)))
+                .hasMessage("malformed");
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        String token = tokens.issue(SEGMENT, GOLD, 50000);
+
+        now.addAndGet(TimeUnit.MINUTES.toMillis(15));
+        assertThat(tokens.verify(token).bundle()).isEqualTo(GOLD);
+
+        now.addAndGet(TimeUnit.MINUTES.toMillis(1));
+        assertThatThrownBy(() -> tokens.verify(token))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessage("expired");
+    }
+
+    @Test
+    void shouldNeitherIssueNorAcceptTokensWithoutSecret() {
+        SuggestionTokens disabled = SuggestionTokens.disabled();
+
+        assertThat(disabled.issue(SEGMENT, GOLD, 50000)).isNull();
+        assertThatThrownBy(() -> disabled.verify(tokens.issue(SEGMENT, GOLD, 50000)))
+                .hasMessage("tokens are not accepted");
+        assertThatThrownBy(() -> new SuggestionTokens("c2hvcnQ=", 15))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,84 @@
+package se.seb.bundleservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import se.seb.bundleservice.model.CustomizedBundleResponse;
+import se.seb.bundleservice.model.Status;
+import se.seb.bundleservice.model.Violations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.seb.bundleservice.model.Product.GOLD_CREDIT_CARD;
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_FOR_STUDENT;
+import static se.seb.bundleservice.model.Violations.ILLEGAL_PRODUCTS_UP_TO_40K;
+
+@ExtendWith(OutputCaptureExtension.class)
+class ViolationEventLogTest {
+
+    private static final String SAMPLE = "Unable to customize due to violations=";
+
+    @Test
+    void shouldCountRejectionsDroppedWhenFull(CapturedOutput output) throws InterruptedException {
+        ViolationEventLog violationEventLog = new ViolationEventLog(2, 3600, 0);
+        for (int i = 0; i < 5; i++) {
+            violationEventLog.record(rejected(ILLEGAL_PRODUCTS_FOR_STUDENT));
+        }
+        violationEventLog.record(rejected());
+
+        violationEventLog.start();
+        violationEventLog.stop();
+
+        assertThat(output.getOut()).contains("rejections=2 dropped=3 ILLEGAL_PRODUCTS_FOR_STUDENT=2")
+                .doesNotContain(SAMPLE);
+    }
+
+    @Test
+    void shouldLogAtMostSamplesPerWindow(CapturedOutput output) throws InterruptedException {
+        ViolationEventLog violationEventLog = new ViolationEventLog(16, 3600, 2);
+        for (int i = 0; i < 5; i++) {
+            violationEventLog.record(rejected(ILLEGAL_PRODUCTS_UP_TO_40K));
+        }
+
+        violationEventLog.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (samples(output) < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        violationEventLog.stop();
+
+        assertThat(samples(output)).isEqualTo(2);
+        assertThat(output.getOut()).contains("rejections=5 dropped=0 ILLEGAL_PRODUCTS_UP_TO_40K=5");
+    }
+
+    @Test
+    void shouldCountFailedRejectionsAndKeepDraining(CapturedOutput output) throws InterruptedException {
+        ViolationEventLog violationEventLog = new ViolationEventLog(16, 3600, 0);
+        violationEventLog.record(rejected(ILLEGAL_PRODUCTS_FOR_STUDENT, null));
+        violationEventLog.record(rejected(ILLEGAL_PRODUCTS_FOR_STUDENT));
+
+        violationEventLog.start();
+        violationEventLog.stop();
+
+        assertThat(output.getOut()).contains("Skipping an item violation-log failed to handle")
+                .contains("rejections=2 dropped=0 ILLEGAL_PRODUCTS_FOR_STUDENT=2 failed=1");
+    }
+
+    private static long samples(CapturedOutput output) {
+        return output.getOut().lines().filter(line -> line.contains(SAMPLE)).count();
+    }
+
+    private static CustomizedBundleResponse rejected(Violations... violations) {
+        return CustomizedBundleResponse.builder()
+                .bundleName("Gold")
+                .illegalProducts(List.of(GOLD_CREDIT_CARD))
+                .status(Status.ERROR)
+                .violations(Arrays.asList(violations))
+                .build();
+    }
+}